@@ -0,0 +1,102 @@
+package ru.rationx.financeapp.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.services.AuthUserCache;
+import ru.rationx.financeapp.services.AuthUserService;
+import ru.rationx.financeapp.services.jwt.JwtService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность JwtAuthFilter под конкурентной нагрузкой: один и тот же набор токенов
+ * проверяют несколько потоков, как при реальном трафике. Подпись проверяется один раз на токен,
+ * дальше работают кэш проверенных токенов и кэш пользователей — их блокировки и видны в замере.
+ * <p>
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="JwtAuthFilterBenchmark -t 16"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class JwtAuthFilterBenchmark {
+
+    // Сколько разных пользователей (токенов) в потоке запросов
+    private static final int USERS = 256;
+
+    private JwtAuthFilter filter;
+    private String[] headers;
+
+    @Setup
+    public void setUp() {
+        // Как в production (root: INFO): debug-логи фильтра замерили бы консоль, а не проверку токена
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "benchmark-secret-benchmark-secret-benchmark");
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10000);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        // Пользователи без базы: промах кэша обходится дёшево, замеряется только фильтр
+        AuthUserService users = new AuthUserService(null) {
+            @Override
+            public AuthUser loadUserByUsername(String username) {
+                return user(username);
+            }
+        };
+        filter = new JwtAuthFilter(jwtService, new AuthUserCache(users, Duration.ofMinutes(5), 10000));
+
+        headers = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            headers[i] = "Bearer " + jwtService.generateToken(user("user" + i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void authenticate(Cursor cursor, Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions");
+        request.addHeader("Authorization", headers[cursor.next++ & (USERS - 1)]);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static AuthUser user(String username) {
+        long id = Long.parseLong(username.substring("user".length()));
+        return new AuthUser(id, username, "", true, true, true, true,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
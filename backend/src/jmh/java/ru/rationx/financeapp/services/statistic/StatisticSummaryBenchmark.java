@@ -0,0 +1,251 @@
+package ru.rationx.financeapp.services.statistic;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.rationx.financeapp.models.dto.statistic.StatisticDTO;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.Category;
+import ru.rationx.financeapp.models.transaction.RegTransaction;
+import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.repository.CategoryRepository;
+import ru.rationx.financeapp.repository.DailyStatisticRepository;
+import ru.rationx.financeapp.services.CategoryRegistry;
+import ru.rationx.financeapp.services.StatisticService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Три представления статистики (общие итоги, суммы по категориям, разбивка по дням за год): до и после сводки.
+ * <ul>
+ *     <li>transactionsMultiPass — как было до дневных агрегатов: generalStatistic, getByCategory и getPeriodStats
+ *     проходят по списку транзакций пользователя каждый сам (фильтры по типу, toMap, groupingBy по дню);</li>
+ *     <li>groupedSummary — текущий StatisticService.summarize и представления из StatisticSummary
+ *     по сгруппированным строкам дневных агрегатов.</li>
+ * </ul>
+ * Чтение из базы в замер не входит ни там, ни там: транзакции и сгруппированные строки готовятся заранее
+ * из одних и тех же данных (раньше загружался весь список транзакций, теперь — не больше строк, чем
+ * категорий и дней). Поэтому с ростом истории прежний вариант дорожает, а текущий — нет.
+ * <p>
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="StatisticSummaryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticSummaryBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final int CATEGORIES = 50;
+    private static final int DAYS = 365;
+
+    @Param({"1000", "100000"})
+    private int transactionCount;
+
+    private final LocalDate start = LocalDate.of(2024, 1, 1);
+    private final LocalDate end = start.plusDays(DAYS - 1);
+
+    private List<Transaction> transactions;
+    private StatisticService statisticService;
+
+    @Setup
+    public void setUp() {
+        List<Category> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(new Category((long) i, "Категория " + i,
+                    i % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT));
+        }
+
+        // Транзакции равномерно по дням, категориям и типам; из них же — строки агрегатов
+        transactions = new ArrayList<>(transactionCount);
+        Map<List<Object>, long[]> byCategoryAndType = new LinkedHashMap<>();
+        Map<List<Object>, long[]> byDay = new LinkedHashMap<>();
+        for (int i = 0; i < transactionCount; i++) {
+            Category category = categories.get(i % CATEGORIES);
+            TransactionType type = (i / CATEGORIES) % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
+            LocalDate date = start.plusDays(i % DAYS);
+            Money sum = Money.ofUnits(100_000L * (1 + i % 997));
+
+            transactions.add(Transaction.builder()
+                    .dateTime(LocalDateTime.of(date, LocalTime.NOON))
+                    .category(category)
+                    .regTransaction(RegTransaction.builder().transactionType(type).sum(sum).date(date).build())
+                    .build());
+
+            add(byCategoryAndType.computeIfAbsent(List.of(category.getId(), type), key -> new long[2]), sum);
+            add(byDay.computeIfAbsent(List.of(date, type), key -> new long[2]), sum);
+        }
+
+        List<DailyStatisticRepository.CategoryTypeTotal> categoryRows = new ArrayList<>();
+        byCategoryAndType.forEach((key, total) -> categoryRows.add(
+                new Row((Long) key.get(0), null, (TransactionType) key.get(1), total[0], total[1])));
+        List<DailyStatisticRepository.DayTotal> dayRows = new ArrayList<>();
+        byDay.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey((a, b) -> ((LocalDate) a.get(0)).compareTo((LocalDate) b.get(0))))
+                .forEach(e -> dayRows.add(new Row(null, (LocalDate) e.getKey().get(0),
+                        (TransactionType) e.getKey().get(1), e.getValue()[0], e.getValue()[1])));
+
+        DailyStatisticRepository repository = Mockito.mock(DailyStatisticRepository.class);
+        when(repository.totalsByCategoryAndType(anyLong())).thenReturn(categoryRows);
+        when(repository.totalsByDay(anyLong(), any(), any())).thenReturn(dayRows);
+
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(categories);
+        CategoryRegistry categoryRegistry = new CategoryRegistry(categoryRepository, null);
+        categoryRegistry.reload();
+
+        statisticService = new StatisticService(repository, categoryRegistry);
+
+        // Контроль: оба варианта считают одни и те же итоги
+        Map<String, Object> before = generalStatistic(transactions);
+        Map<String, Object> after = statisticService.generalStatistic(statisticService.summarize(USER_ID, start, end));
+        if (!before.equals(after)) {
+            throw new IllegalStateException("Итоги не совпадают: " + before + " / " + after);
+        }
+    }
+
+    @Benchmark
+    public void transactionsMultiPass(Blackhole blackhole) {
+        blackhole.consume(generalStatistic(transactions));
+        blackhole.consume(getByCategory(transactions));
+        blackhole.consume(getPeriodStats(transactions));
+    }
+
+    @Benchmark
+    public void groupedSummary(Blackhole blackhole) {
+        StatisticSummary summary = statisticService.summarize(USER_ID, start, end);
+        blackhole.consume(statisticService.generalStatistic(summary));
+        blackhole.consume(statisticService.getByCategory(summary));
+        blackhole.consume(statisticService.getPeriodStats(summary));
+    }
+
+    // Прежний StatisticService.generalStatistic: два прохода по регистру, по одному на тип
+    private static Map<String, Object> generalStatistic(List<Transaction> transactions) {
+        List<RegTransaction> regTransactions = transactions.stream().map(Transaction::getRegTransaction).toList();
+
+        Money totalIncome = regTransactions.stream()
+                .filter(regTransaction -> regTransaction.getTransactionType().equals(TransactionType.DEBIT))
+                .map(RegTransaction::getSum)
+                .reduce(Money.ZERO, Money::plus);
+
+        Money totalExpense = regTransactions.stream()
+                .filter(regTransaction -> regTransaction.getTransactionType().equals(TransactionType.CREDIT))
+                .map(RegTransaction::getSum)
+                .reduce(Money.ZERO, Money::plus);
+
+        return Map.of(
+                "totalIncome", totalIncome,
+                "totalExpense", totalExpense,
+                "balance", totalIncome.minus(totalExpense),
+                "transactionCount", (long) regTransactions.size()
+        );
+    }
+
+    // Прежний StatisticService.getByCategory: toMap по имени категории со слиянием DTO
+    private static Map<String, StatisticDTO> getByCategory(List<Transaction> transactions) {
+        return transactions.stream().collect(Collectors.toMap(transaction -> transaction.getCategory().getName(),
+                o -> StatisticDTO.builder()
+                        .type(o.getCategory().getApplicableType().getDescription())
+                        .sum(o.getRegTransaction().getSum())
+                        .build(),
+                (o, o2) -> StatisticDTO.builder().type(o.getType()).sum(o.getSum().plus(o2.getSum())).build()));
+    }
+
+    // Прежний StatisticService.getPeriodStats: groupingBy по дню, затем два прохода на каждый день
+    private static List<Map<String, Object>> getPeriodStats(List<Transaction> transactions) {
+        Map<LocalDate, List<Transaction>> groupedByDate = transactions.stream()
+                .filter(tx -> tx.getDateTime() != null)
+                .collect(Collectors.groupingBy(tx -> tx.getDateTime()
+                        .atZone(ZoneId.systemDefault())
+                        .toLocalDate()));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Transaction>> entry : groupedByDate.entrySet()) {
+            List<Transaction> dailyTransactions = entry.getValue();
+
+            Money income = dailyTransactions.stream()
+                    .filter(tx -> tx.getRegTransaction().getTransactionType() == TransactionType.DEBIT)
+                    .map(tx -> tx.getRegTransaction().getSum())
+                    .reduce(Money.ZERO, Money::plus);
+
+            Money expenses = dailyTransactions.stream()
+                    .filter(tx -> tx.getRegTransaction().getTransactionType() == TransactionType.CREDIT)
+                    .map(tx -> tx.getRegTransaction().getSum())
+                    .reduce(Money.ZERO, Money::plus);
+
+            Map<String, Object> dailyStats = new HashMap<>();
+            dailyStats.put("period", Date.from(entry.getKey().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            dailyStats.put("income", income);
+            dailyStats.put("expenses", expenses);
+            dailyStats.put("balance", income.minus(expenses));
+            dailyStats.put("transactionCount", dailyTransactions.size());
+            result.add(dailyStats);
+        }
+
+        result.sort((a, b) -> ((Date) a.get("period")).compareTo((Date) b.get("period")));
+        return result;
+    }
+
+    private static void add(long[] total, Money sum) {
+        total[0] += sum.units();
+        total[1]++;
+    }
+
+    // Строка сгруппированного запроса (вместо проекции Spring Data)
+    private record Row(Long categoryId, LocalDate date, TransactionType type, long sum, long count)
+            implements DailyStatisticRepository.CategoryTypeTotal, DailyStatisticRepository.DayTotal {
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public LocalDate getDate() {
+            return date;
+        }
+
+        @Override
+        public TransactionType getType() {
+            return type;
+        }
+
+        @Override
+        public Long getSum() {
+            return sum;
+        }
+
+        @Override
+        public Long getCount() {
+            return count;
+        }
+    }
+}
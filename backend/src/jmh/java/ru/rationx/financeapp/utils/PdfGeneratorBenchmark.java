@@ -0,0 +1,198 @@
+package ru.rationx.financeapp.utils;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таблица транзакций PDF отчета, строк в секунду: до и после переиспользования шрифтов.
+ * <ul>
+ *     <li>perCellBaseFont — как было до PdfFontRegistry: на каждую ячейку шрифт читается из ресурсов
+ *     и создаётся через BaseFont.createFont, ячейке отдельно задаются фон, отступ и выравнивание;</li>
+ *     <li>registryFonts — текущий PdfGenerator: шрифты из реестра, стили ячеек готовятся один раз на таблицу.</li>
+ * </ul>
+ * Обе таблицы выводятся в документ пачками по 500 строк, документ пишется в пустой поток.
+ * Текущий вариант вдобавок выводит заголовок раздела и подвал — сравнение не в его пользу.
+ * <p>
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec -Djmh.args="PdfGeneratorBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfGeneratorBenchmark {
+
+    private static final int ROWS = 2000;
+    private static final int CHUNK_ROWS = 500;
+
+    private static final BaseColor LIGHT_GRAY = new BaseColor(245, 245, 245);
+    private static final BaseColor INCOME_COLOR = new BaseColor(76, 175, 80);
+    private static final BaseColor EXPENSE_COLOR = new BaseColor(244, 67, 54);
+
+    private PdfGenerator generator;
+    private List<PdfGenerator.TransactionRow> rows;
+
+    @Setup
+    public void setUp() {
+        generator = new PdfGenerator(new PdfFontRegistry());
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new PdfGenerator.TransactionRow((long) i, start.plusMinutes(i),
+                    i % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT,
+                    Money.parse(String.valueOf(10 + i % 1000)), "Категория " + i % 20, "Комментарий " + i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void registryFonts() throws Exception {
+        Document document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, OutputStream.nullOutputStream());
+        document.open();
+        generator.addTransactionList(document, writer, rows.iterator());
+        document.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void perCellBaseFont() throws Exception {
+        Document document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, OutputStream.nullOutputStream());
+        document.open();
+        addTransactionTablePerCellFont(document, writer, rows.iterator());
+        document.close();
+    }
+
+    // Таблица транзакций в том виде, в каком её строил PdfGenerator до PdfFontRegistry
+    private static void addTransactionTablePerCellFont(Document document, PdfWriter writer,
+                                                       Iterator<PdfGenerator.TransactionRow> transactions)
+            throws DocumentException, IOException {
+        PdfPTable table = new PdfPTable(6);
+        table.setWidths(new float[]{0.7f, 1.3f, 1.5f, 1.5f, 1.5f, 2.5f});
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+
+        for (String header : new String[]{"ID", "Дата", "Тип", "Сумма", "Категория", "Комментарий"}) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, getBaseFont(10, true, null)));
+            cell.setBackgroundColor(new BaseColor(240, 240, 240));
+            cell.setPadding(5);
+            table.addCell(cell);
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        int rowNum = 0;
+        while (transactions.hasNext()) {
+            PdfGenerator.TransactionRow tx = transactions.next();
+            String date = tx.dateTime() != null ? tx.dateTime().format(formatter) : "Н/Д";
+            boolean expense = tx.type() == TransactionType.CREDIT;
+            BaseColor rowColor = (rowNum % 2 == 0) ? BaseColor.WHITE : LIGHT_GRAY;
+            BaseColor textColor = expense ? EXPENSE_COLOR : INCOME_COLOR;
+
+            PdfPCell idCell = new PdfPCell(new Phrase(String.valueOf(tx.id()), getBaseFont(10, false, null)));
+            idCell.setBackgroundColor(rowColor);
+            idCell.setPadding(5);
+            idCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            table.addCell(idCell);
+
+            PdfPCell dateCell = new PdfPCell(new Phrase(date, getBaseFont(10, false, null)));
+            dateCell.setBackgroundColor(rowColor);
+            dateCell.setPadding(5);
+            table.addCell(dateCell);
+
+            PdfPCell typeCell = new PdfPCell(new Phrase(expense ? "Расход" : "Доход", getBaseFont(10, false, textColor)));
+            typeCell.setBackgroundColor(rowColor);
+            typeCell.setPadding(5);
+            table.addCell(typeCell);
+
+            PdfPCell amountCell = new PdfPCell(new Phrase(String.format("%,.2f ₽", tx.sum().toBigDecimal()),
+                    getBaseFont(10, false, textColor)));
+            amountCell.setBackgroundColor(rowColor);
+            amountCell.setPadding(5);
+            amountCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            table.addCell(amountCell);
+
+            PdfPCell categoryCell = new PdfPCell(new Phrase(tx.category(), getBaseFont(10, false, null)));
+            categoryCell.setBackgroundColor(rowColor);
+            categoryCell.setPadding(5);
+            table.addCell(categoryCell);
+
+            PdfPCell commentCell = new PdfPCell(new Phrase(tx.comment() != null ? tx.comment() : "",
+                    getBaseFont(10, false, null)));
+            commentCell.setBackgroundColor(rowColor);
+            commentCell.setPadding(5);
+            table.addCell(commentCell);
+
+            rowNum++;
+            if (rowNum % CHUNK_ROWS == 0) {
+                document.add(table);
+                writer.flush();
+            }
+        }
+
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    // Прежний PdfGenerator.getBaseFont: файл шрифта читается заново на каждый вызов
+    private static Font getBaseFont(int size, boolean bold, BaseColor color) {
+        try (InputStream fontStream = PdfGeneratorBenchmark.class.getResourceAsStream("/fonts/arial.ttf")) {
+            if (fontStream == null) {
+                throw new IOException("Font file not found: /fonts/arial.ttf");
+            }
+            BaseFont baseFont = BaseFont.createFont(
+                    "arial.ttf",
+                    BaseFont.IDENTITY_H,
+                    BaseFont.EMBEDDED,
+                    BaseFont.CACHED,
+                    fontStream.readAllBytes(),
+                    null
+            );
+            Font font = new Font(baseFont, size);
+            if (bold) {
+                font.setStyle(Font.BOLD);
+            }
+            if (color != null) {
+                font.setColor(color);
+            }
+            return font;
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("Не удалось загрузить шрифт для PDF", e);
+        }
+    }
+}
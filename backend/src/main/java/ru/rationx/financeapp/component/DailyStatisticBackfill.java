@@ -0,0 +1,36 @@
+package ru.rationx.financeapp.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import ru.rationx.financeapp.repository.DailyStatisticRepository;
+import ru.rationx.financeapp.repository.TransactionRepository;
+import ru.rationx.financeapp.services.DailyStatisticService;
+
+/**
+ * Заполняет дневные агрегаты при старте: если таблица агрегатов пуста, а транзакции уже есть
+ * (первый запуск после появления агрегатов), либо если явно включён spring.statistics.rebuild-on-startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DailyStatisticBackfill implements CommandLineRunner {
+
+    private final DailyStatisticService dailyStatisticService;
+    private final DailyStatisticRepository dailyStatisticRepository;
+    private final TransactionRepository transactionRepository;
+
+    @Value("${spring.statistics.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void run(String... args) {
+        if (rebuildOnStartup
+                || (dailyStatisticRepository.count() == 0 && transactionRepository.count() > 0)) {
+            log.info("Пересчитываем дневные агрегаты по транзакциям");
+            dailyStatisticService.rebuild();
+        }
+    }
+}
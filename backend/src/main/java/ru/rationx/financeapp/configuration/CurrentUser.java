@@ -0,0 +1,16 @@
+package ru.rationx.financeapp.configuration;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+
+import java.lang.annotation.*;
+
+/**
+ * Текущий аутентифицированный пользователь (AuthUser) как аргумент метода контроллера:
+ * {@code @CurrentUser AuthUser user}. id пользователя берется из токена, без запроса к user_table.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@AuthenticationPrincipal(errorOnInvalidType = true)
+public @interface CurrentUser {
+}
@@ -1,5 +1,6 @@
 package ru.rationx.financeapp.configuration;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -13,15 +14,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import ru.rationx.financeapp.services.AuthUserService;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.services.AuthUserCache;
 import ru.rationx.financeapp.services.jwt.JwtService;
 
 import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -29,7 +32,7 @@ import java.io.IOException;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final AuthUserService userService;
+    private final AuthUserCache userCache;
 
     @Override
     protected void doFilterInternal(
@@ -63,29 +66,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             // Извлекаем токен из заголовка
             final String jwt = authHeader.substring(7);
             
-            // Извлекаем имя пользователя из токена
-            final String username = jwtService.extractUsername(jwt);
+            // Разбираем токен один раз: подпись проверяется здесь (или берется из кэша проверенных токенов)
+            final Claims claims = jwtService.extractAllClaims(jwt);
+            final String username = claims.getSubject();
             log.debug("Extracted username from token: {}", username);
             
             // Если имя пользователя не null и нет текущей аутентификации
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Загружаем данные пользователя
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                
+                // Состояние пользователя (включен, не заблокирован) — из кэша, в базу только при промахе
+                AuthUser user = userCache.get(username);
+
+                // Токен от другого пользователя с тем же логином (пересоздан) не принимаем
+                Long tokenUserId = jwtService.extractUserId(claims);
+                boolean sameUser = tokenUserId == null || tokenUserId.equals(user.getId());
+
                 // Проверяем валидность токена
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (sameUser && user.isEnabled() && user.isAccountNonLocked() && jwtService.isTokenValid(claims, user)) {
                     log.debug("Token is valid for user: {}", username);
-                    
+
+                    // Роли берем из подписанного токена; у старых токенов без ролей — из кэша
+                    List<GrantedAuthority> roles = jwtService.extractAuthorities(claims);
+                    AuthUser principal = roles != null ? user.withAuthorities(roles) : user;
+
                     // Создаем объект аутентификации
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
-                    
+
                     // Добавляем детали запроса
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    
+
                     // Устанавливаем аутентификацию в контекст безопасности
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     log.debug("Authentication set in SecurityContext for user: {}", username);
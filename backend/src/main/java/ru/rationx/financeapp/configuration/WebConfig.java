@@ -20,8 +20,9 @@ public class WebConfig implements WebMvcConfigurer {
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("*") // Разрешаем все источники с явным указанием
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag")
                 .allowCredentials(false) // Меняем на false для совместимости с allowedOrigins("*")
                 .maxAge(3600);
     }
@@ -33,9 +34,10 @@ public class WebConfig implements WebMvcConfigurer {
         
         // Разрешаем запросы со всех источников - для Docker-среды
         config.addAllowedOrigin("*"); // Используем явное добавление, а не паттерн
-        config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "Origin", "Accept"));
-        config.setExposedHeaders(Arrays.asList("Authorization"));
+        config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "Origin", "Accept", "If-Match"));
+        // ETag — версия транзакции для If-Match при изменении
+        config.setExposedHeaders(Arrays.asList("Authorization", "ETag"));
         config.setAllowCredentials(false); // Меняем на false для совместимости с allowedOrigin("*")
         config.setMaxAge(3600L);
         
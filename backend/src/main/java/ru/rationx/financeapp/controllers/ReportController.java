@@ -0,0 +1,130 @@
+package ru.rationx.financeapp.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.rationx.financeapp.configuration.CurrentUser;
+import ru.rationx.financeapp.models.dto.report.ReportJobDTO;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.services.report.ReportFileStore;
+import ru.rationx.financeapp.services.report.ReportJob;
+import ru.rationx.financeapp.services.report.ReportJobService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Асинхронные PDF отчеты: создать задание, узнать его состояние, скачать готовый файл
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<?> createReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @CurrentUser AuthUser user) {
+        log.info("POST /api/reports?start={}&end={} - User: {}",
+                start.format(DateTimeFormatter.ISO_DATE_TIME), end.format(DateTimeFormatter.ISO_DATE_TIME),
+                user.getUsername());
+
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Дата окончания периода раньше даты начала"));
+        }
+
+        Long userId = user.getId();
+        try {
+            ReportJob job = reportJobService.submit(userId, start, end);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toDTO(job));
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь отчетов заполнена, задание пользователя {} отклонено", user.getUsername());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Слишком много отчетов в очереди, попробуйте позже"));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getReport(@PathVariable String id, @CurrentUser AuthUser user) {
+        Long userId = user.getId();
+
+        Optional<ReportJob> job = reportJobService.get(id, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Отчет не найден"));
+        }
+        return ResponseEntity.ok(toDTO(job.get()));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> downloadReport(@PathVariable String id, @CurrentUser AuthUser user) throws IOException {
+        Long userId = user.getId();
+
+        Optional<ReportJob> job = reportJobService.get(id, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Отчет не найден"));
+        }
+        if (job.get().getStatus() != ReportJob.Status.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(toDTO(job.get()));
+        }
+
+        // Файл открываем до ответа: если хранилище его уже удалило, клиент получит 410, а не оборванный ответ
+        // после отправленных заголовков. Открытый файл дочитается, даже если его удалят во время отдачи
+        Optional<FileChannel> file = Optional.empty();
+        Optional<ReportFileStore.StoredReport> stored = reportJobService.getFile(job.get());
+        if (stored.isPresent()) {
+            file = reportJobService.open(stored.get());
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body(Map.of("error", "Срок хранения отчета истек, создайте его заново"));
+        }
+        FileChannel channel = file.get();
+
+        ReportJob.Key key = job.get().getKey();
+        String fileName = "finance-report-" +
+                key.start().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + "-" +
+                key.end().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + ".pdf";
+
+        StreamingResponseBody body = out -> {
+            try (channel) {
+                ReportFileStore.copy(channel, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(channel.size())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private ReportJobDTO toDTO(ReportJob job) {
+        boolean expired = job.getStatus() == ReportJob.Status.DONE && reportJobService.getFile(job).isEmpty();
+        return ReportJobDTO.builder()
+                .id(job.getId())
+                .status(expired ? "EXPIRED" : job.getStatus().name())
+                .start(job.getKey().start())
+                .end(job.getKey().end())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(job.getError())
+                .downloadUrl(job.getStatus() == ReportJob.Status.DONE && !expired
+                        ? "/api/reports/" + job.getId() + "/download" : null)
+                .build();
+    }
+}
@@ -5,25 +5,29 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.rationx.financeapp.configuration.CurrentUser;
 import ru.rationx.financeapp.models.dto.statistic.StatisticDTO;
-import ru.rationx.financeapp.models.transaction.Transaction;
 import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.services.DailyStatisticService;
 import ru.rationx.financeapp.services.StatisticService;
-import ru.rationx.financeapp.services.TransactionService;
+import ru.rationx.financeapp.services.report.ReportData;
+import ru.rationx.financeapp.services.report.PdfReportService;
+import ru.rationx.financeapp.services.report.ReportDataService;
 import ru.rationx.financeapp.utils.PdfGenerator;
 
-import java.security.Principal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Контроллер для предоставления статистических данных и аналитики
@@ -36,16 +40,18 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StatisticsController {
     private final StatisticService statistics;
-    private final TransactionService transactionService;
+    private final ReportDataService reportDataService;
+    private final PdfReportService pdfReportService;
     private final PdfGenerator pdfGenerator;
+    private final DailyStatisticService dailyStatisticService;
 
     @GetMapping
-    public ResponseEntity<?> getGeneralStatistics(Principal principal) {
+    public ResponseEntity<?> getGeneralStatistics(@CurrentUser AuthUser user) {
         try {
-            log.info("GET /api/statistics - User: {}", principal.getName());
+            log.info("GET /api/statistics - User: {}", user.getUsername());
 
             // Получаем общую статистику
-            Map<String, Object> objectMap = statistics.generalStatistic(principal);
+            Map<String, Object> objectMap = statistics.generalStatistic(user.getId());
 
             return ResponseEntity.ok(objectMap);
         } catch (Exception e) {
@@ -55,11 +61,11 @@ public class StatisticsController {
     }
 
     @GetMapping("/by-category")
-    public ResponseEntity<?> getStatisticsByCategory(Principal principal) {
+    public ResponseEntity<?> getStatisticsByCategory(@CurrentUser AuthUser user) {
         try {
-            log.info("GET /api/statistics/by-category - User: {}", principal.getName());
+            log.info("GET /api/statistics/by-category - User: {}", user.getUsername());
 
-            Map<String, StatisticDTO> byCategory = statistics.getByCategory(principal);
+            Map<String, StatisticDTO> byCategory = statistics.getByCategory(user.getId());
 
             return ResponseEntity.ok(byCategory);
         } catch (Exception e) {
@@ -68,28 +74,29 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * Статистика за период с разбивкой по дням, неделям или месяцам.
+     * Агрегаты дневные, поэтому границы периода берутся с точностью до дня.
+     */
     @GetMapping("/by-period")
     public ResponseEntity<?> getStatisticsByPeriod(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "DAY") StatisticService.Granularity granularity,
+            @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
-            log.info("GET /api/statistics/by-period?start={}&end={} - User: {}", 
-                    start.format(formatter), end.format(formatter), auth.getName());
-            
-            // Заглушка для отладки
-            Map<String, Object> statistics = new HashMap<>();
-            statistics.put("period", Map.of(
-                    "start", start.format(formatter),
-                    "end", end.format(formatter)
-            ));
-            statistics.put("totalIncome", 75000.0);
-            statistics.put("totalExpense", 42000.0);
-            statistics.put("balance", 33000.0);
-            statistics.put("transactionCount", 22);
-            
-            return ResponseEntity.ok(statistics);
+            log.info("GET /api/statistics/by-period?start={}&end={}&granularity={} - User: {}",
+                    start.format(formatter), end.format(formatter), granularity, user.getUsername());
+
+            if (end.isBefore(start)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Дата окончания периода раньше даты начала"));
+            }
+
+            Map<String, Object> result = statistics.getStatisticsForPeriod(
+                    user.getId(), start.toLocalDate(), end.toLocalDate(), granularity);
+
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Error getting statistics by period: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", "Ошибка при получении статистики по периоду: " + e.getMessage()));
@@ -97,28 +104,13 @@ public class StatisticsController {
     }
 
     @GetMapping("/by-type")
-    public ResponseEntity<?> getStatisticsByType(@RequestParam TransactionType type) {
+    public ResponseEntity<?> getStatisticsByType(@RequestParam TransactionType type, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/statistics/by-type?type={} - User: {}", type, auth.getName());
-            
-            // Заглушка для отладки
-            Map<String, Object> statistics = new HashMap<>();
-            statistics.put("type", type);
-            
-            if (type == TransactionType.DEBIT) {
-                statistics.put("total", 150000.0);
-                statistics.put("average", 25000.0);
-                statistics.put("count", 6);
-                statistics.put("largestCategory", "Зарплата");
-            } else {
-                statistics.put("total", 85000.0);
-                statistics.put("average", 2500.0);
-                statistics.put("count", 34);
-                statistics.put("largestCategory", "Покупки");
-            }
-            
-            return ResponseEntity.ok(statistics);
+            log.info("GET /api/statistics/by-type?type={} - User: {}", type, user.getUsername());
+
+            Map<String, Object> result = statistics.getStatisticsByType(user.getId(), type);
+
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Error getting statistics by type: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", "Ошибка при получении статистики по типу: " + e.getMessage()));
@@ -126,20 +118,17 @@ public class StatisticsController {
     }
 
     @GetMapping("/last-month")
-    public ResponseEntity<?> getLastMonthStatistics() {
+    public ResponseEntity<?> getLastMonthStatistics(@CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/statistics/last-month - User: {}", auth.getName());
-            
-            // Заглушка для отладки
-            Map<String, Object> statistics = new HashMap<>();
-            statistics.put("period", "Последний месяц");
-            statistics.put("totalIncome", 45000.0);
-            statistics.put("totalExpense", 35000.0);
-            statistics.put("balance", 10000.0);
-            statistics.put("transactionCount", 18);
-            
-            return ResponseEntity.ok(statistics);
+            log.info("GET /api/statistics/last-month - User: {}", user.getUsername());
+
+            LocalDate today = LocalDate.now();
+            Map<String, Object> result = statistics.getStatisticsForPeriod(
+                    user.getId(), today.minusMonths(1), today, StatisticService.Granularity.DAY);
+            result.put("range", result.get("period"));
+            result.put("period", "Последний месяц");
+
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Error getting last month statistics: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", "Ошибка при получении статистики за последний месяц: " + e.getMessage()));
@@ -147,26 +136,35 @@ public class StatisticsController {
     }
 
     @GetMapping("/last-year")
-    public ResponseEntity<?> getLastYearStatistics() {
+    public ResponseEntity<?> getLastYearStatistics(@CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/statistics/last-year - User: {}", auth.getName());
-            
-            // Заглушка для отладки
-            Map<String, Object> statistics = new HashMap<>();
-            statistics.put("period", "Последний год");
-            statistics.put("totalIncome", 1250000.0);
-            statistics.put("totalExpense", 950000.0);
-            statistics.put("balance", 300000.0);
-            statistics.put("transactionCount", 156);
-            
-            return ResponseEntity.ok(statistics);
+            log.info("GET /api/statistics/last-year - User: {}", user.getUsername());
+
+            LocalDate today = LocalDate.now();
+            Map<String, Object> result = statistics.getStatisticsForPeriod(
+                    user.getId(), today.minusYears(1), today, StatisticService.Granularity.MONTH);
+            result.put("range", result.get("period"));
+            result.put("period", "Последний год");
+
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Error getting last year statistics: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", "Ошибка при получении статистики за последний год: " + e.getMessage()));
         }
     }
 
+    /**
+     * Полный пересчёт дневных агрегатов из транзакций (только для администратора).
+     * Нужен для первичного заполнения или если агрегаты разошлись с данными.
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildDailyStatistics(@CurrentUser AuthUser user) {
+        log.info("POST /api/statistics/rebuild - User: {}", user.getUsername());
+        int rows = dailyStatisticService.rebuild();
+        return ResponseEntity.ok(Map.of("message", "Агрегаты пересчитаны", "rows", rows));
+    }
+
     /**
      * Экспортирует статистику в PDF отчет
      *
@@ -178,42 +176,31 @@ public class StatisticsController {
     public ResponseEntity<?> exportToPdf(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
-            Principal principal) {
+            @CurrentUser AuthUser user) {
         try {
             log.info("GET /api/statistics/export-pdf?start={}&end={} - User: {}", 
                     start.format(DateTimeFormatter.ISO_DATE_TIME), 
                     end.format(DateTimeFormatter.ISO_DATE_TIME), 
-                    principal.getName());
-            
-            // Получаем данные для отчета
-            Map<String, Object> generalStats = statistics.generalStatistic(principal);
-            Map<String, StatisticDTO> categoryStats = statistics.getByCategory(principal);
+                    user.getUsername());
             
-            // Получаем транзакции за указанный период
+            // Данные для отчета собираются параллельно, пользователь определяется один раз
+            ReportData data = reportDataService.collect(user.getId(), start, end);
+
             Date startDate = Date.from(start.atZone(ZoneId.systemDefault()).toInstant());
             Date endDate = Date.from(end.atZone(ZoneId.systemDefault()).toInstant());
-            List<Transaction> transactions = transactionService.getTransactionsByDateRange(
-                    principal.getName(), startDate, endDate);
-            
-            // Получаем данные по периодам, тут нужно будет доработать метод
-            // для получения реальных данных за период
-            // Пока используем фиктивные данные для примера
-            List<Map<String, Object>> periodStats = statistics.getPeriodStats(principal, startDate, endDate);
-            
+
             // Генерируем PDF
             byte[] pdfBytes = pdfGenerator.generateFinancialReport(
-                    generalStats,
-                    categoryStats,
-                    periodStats,
-                    transactions,
+                    data.generalStats(),
+                    data.categoryStats(),
+                    data.periodStats(),
+                    data.transactions(),
                     startDate,
                     endDate
             );
             
             // Формируем имя файла
-            String fileName = "finance-report-" + 
-                    start.format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + "-" +
-                    end.format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + ".pdf";
+            String fileName = reportFileName(start, end);
             
             // Настраиваем заголовки для скачивания файла
             HttpHeaders headers = new HttpHeaders();
@@ -226,9 +213,53 @@ public class StatisticsController {
                     .headers(headers)
                     .body(pdfBytes);
             
+        } catch (TimeoutException e) {
+            log.error("Timeout collecting PDF report data: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(Map.of("error", "Не удалось собрать данные для отчета вовремя, попробуйте позже"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Генерация отчета прервана"));
         } catch (Exception e) {
             log.error("Error exporting to PDF: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", "Ошибка при генерации PDF отчета: " + e.getMessage()));
         }
     }
+
+    /**
+     * Потоковый PDF отчет: документ пишется прямо в ответ по мере чтения транзакций из базы,
+     * поэтому память не зависит от размера отчета, а первые байты приходят клиенту сразу.
+     * Ошибку во время генерации клиенту уже не вернуть — соединение просто обрывается.
+     */
+    @GetMapping("/export-pdf/stream")
+    public ResponseEntity<?> streamPdf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @CurrentUser AuthUser user) {
+        log.info("GET /api/statistics/export-pdf/stream?start={}&end={} - User: {}",
+                start.format(DateTimeFormatter.ISO_DATE_TIME),
+                end.format(DateTimeFormatter.ISO_DATE_TIME),
+                user.getUsername());
+
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Дата окончания периода раньше даты начала"));
+        }
+
+        // id пользователя берем заранее: тело ответа пишется уже в другом потоке
+        Long userId = user.getId();
+
+        StreamingResponseBody body = out -> pdfReportService.write(userId, start, end, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + reportFileName(start, end) + "\"")
+                .body(body);
+    }
+
+    private static String reportFileName(LocalDateTime start, LocalDateTime end) {
+        return "finance-report-" +
+                start.format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + "-" +
+                end.format(DateTimeFormatter.ofPattern("dd-MM-yyyy")) + ".pdf";
+    }
 }
@@ -4,29 +4,48 @@
 
 package ru.rationx.financeapp.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.rationx.financeapp.configuration.CurrentUser;
 import ru.rationx.financeapp.controllers.mapper.TransactionMapper;
 import ru.rationx.financeapp.models.dto.transaction.LiteTransactionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
 import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionFilterDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionPageDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionSearchResultDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionStatusTransitionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionStatusTransitionResultDTO;
 import ru.rationx.financeapp.models.transaction.Transaction;
 import ru.rationx.financeapp.models.transaction.TransactionStatus;
 import ru.rationx.financeapp.models.transaction.TransactionType;
-import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.models.user.AuthUser;
 import ru.rationx.financeapp.services.TransactionService;
-import ru.rationx.financeapp.services.UserService;
+import ru.rationx.financeapp.services.exception.TransactionVersionConflictException;
+import ru.rationx.financeapp.services.export.TransactionExportService;
+import ru.rationx.financeapp.services.export.TransactionExportService.ExportFormat;
+import ru.rationx.financeapp.services.pagination.TransactionPage;
 
 import java.math.BigDecimal;
-import java.security.Principal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -35,16 +54,16 @@ import java.util.Map;
 public class TransactionController {
 
     private final TransactionService transactionService;
-    private final UserService userService;
     private final TransactionMapper transactionMapper;
+    private final TransactionExportService transactionExportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<?> getAllTransactions() {
+    public ResponseEntity<?> getAllTransactions(@CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions - User: {}", auth.getName());
+            log.info("GET /api/transactions - User: {}", user.getUsername());
             
-            List<Transaction> transactions = transactionService.getAllTransactions();
+            List<Transaction> transactions = transactionService.getAllTransactions(user.getId());
             log.info("Retrieved {} transactions", transactions.size());
             
             // Преобразуем все транзакции в DTO
@@ -62,17 +81,17 @@ public class TransactionController {
 
     @GetMapping("/status")
     public ResponseEntity<?> getTransactionsByStatus(
-            @RequestParam(name = "status", required = false) TransactionStatus status) {
+            @RequestParam(name = "status", required = false) TransactionStatus status,
+            @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/status - User: {}, Status: {}", auth.getName(), status);
+            log.info("GET /api/transactions/status - User: {}, Status: {}", user.getUsername(), status);
             
             List<Transaction> transactions;
             if (status != null) {
-                transactions = transactionService.getTransactionsByStatus(status);
+                transactions = transactionService.getTransactionsByStatus(user.getId(), status);
                 log.info("Retrieved {} transactions with status {}", transactions.size(), status);
             } else {
-                transactions = transactionService.getAllTransactions();
+                transactions = transactionService.getAllTransactions(user.getId());
                 log.info("Retrieved all {} transactions (no status filter)", transactions.size());
             }
             
@@ -90,12 +109,11 @@ public class TransactionController {
     }
 
     @GetMapping("/recipient-inn/{inn}")
-    public ResponseEntity<?> getTransactionsByRecipientInn(@PathVariable String inn) {
+    public ResponseEntity<?> getTransactionsByRecipientInn(@PathVariable String inn, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/recipient-inn/{} - User: {}", inn, auth.getName());
+            log.info("GET /api/transactions/recipient-inn/{} - User: {}", inn, user.getUsername());
             
-            List<Transaction> transactions = transactionService.getTransactionsByRecipientInn(inn);
+            List<Transaction> transactions = transactionService.getTransactionsByRecipientInn(user.getId(), inn);
             log.info("Retrieved {} transactions with recipient INN {}", transactions.size(), inn);
             
             // Преобразуем все транзакции в DTO
@@ -113,17 +131,17 @@ public class TransactionController {
 
     @GetMapping("/type")
     public ResponseEntity<?> getTransactionsByType(
-            @RequestParam(name = "type", required = false) TransactionType type) {
+            @RequestParam(name = "type", required = false) TransactionType type,
+            @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/type - User: {}, Type: {}", auth.getName(), type);
+            log.info("GET /api/transactions/type - User: {}, Type: {}", user.getUsername(), type);
             
             List<Transaction> transactions;
             if (type != null) {
-                transactions = transactionService.getTransactionsByType(type);
+                transactions = transactionService.getTransactionsByType(user.getId(), type);
                 log.info("Retrieved {} transactions with type {}", transactions.size(), type);
             } else {
-                transactions = transactionService.getAllTransactions();
+                transactions = transactionService.getAllTransactions(user.getId());
                 log.info("Retrieved all {} transactions (no type filter)", transactions.size());
             }
             
@@ -141,12 +159,11 @@ public class TransactionController {
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<?> getTransactionsByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<?> getTransactionsByCategory(@PathVariable Long categoryId, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/category/{} - User: {}", categoryId, auth.getName());
+            log.info("GET /api/transactions/category/{} - User: {}", categoryId, user.getUsername());
             
-            List<Transaction> transactions = transactionService.getTransactionsByCategory(categoryId);
+            List<Transaction> transactions = transactionService.getTransactionsByCategory(user.getId(), categoryId);
             log.info("Retrieved {} transactions with category ID {}", transactions.size(), categoryId);
             
             // Преобразуем все транзакции в DTO
@@ -163,12 +180,11 @@ public class TransactionController {
     }
 
     @GetMapping("/sender-bank/{bank}")
-    public ResponseEntity<?> getTransactionsBySenderBank(@PathVariable String bank) {
+    public ResponseEntity<?> getTransactionsBySenderBank(@PathVariable String bank, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/sender-bank/{} - User: {}", bank, auth.getName());
+            log.info("GET /api/transactions/sender-bank/{} - User: {}", bank, user.getUsername());
             
-            List<Transaction> transactions = transactionService.getTransactionsBySenderBank(bank);
+            List<Transaction> transactions = transactionService.getTransactionsBySenderBank(user.getId(), bank);
             log.info("Retrieved {} transactions with sender bank {}", transactions.size(), bank);
             
             // Преобразуем все транзакции в DTO
@@ -185,12 +201,11 @@ public class TransactionController {
     }
 
     @GetMapping("/recipient-bank/{bank}")
-    public ResponseEntity<?> getTransactionsByRecipientBank(@PathVariable String bank) {
+    public ResponseEntity<?> getTransactionsByRecipientBank(@PathVariable String bank, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/recipient-bank/{} - User: {}", bank, auth.getName());
+            log.info("GET /api/transactions/recipient-bank/{} - User: {}", bank, user.getUsername());
             
-            List<Transaction> transactions = transactionService.getTransactionsByRecipientBank(bank);
+            List<Transaction> transactions = transactionService.getTransactionsByRecipientBank(user.getId(), bank);
             log.info("Retrieved {} transactions with recipient bank {}", transactions.size(), bank);
             
             // Преобразуем все транзакции в DTO
@@ -209,13 +224,13 @@ public class TransactionController {
     @GetMapping("/date-range")
     public ResponseEntity<?> getTransactionsByDateRange(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             log.info("GET /api/transactions/date-range - User: {}, StartDate: {}, EndDate: {}",
-                    auth.getName(), startDate, endDate);
+                    user.getUsername(), startDate, endDate);
             
-            List<Transaction> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
+            List<Transaction> transactions = transactionService.getTransactionsByDateRange(user.getId(), startDate, endDate);
             log.info("Retrieved {} transactions in date range from {} to {}", 
                     transactions.size(), startDate, endDate);
             
@@ -236,13 +251,13 @@ public class TransactionController {
     @GetMapping("/amount-range")
     public ResponseEntity<?> getTransactionsByAmountRange(
             @RequestParam("minAmount") BigDecimal minAmount,
-            @RequestParam("maxAmount") BigDecimal maxAmount) {
+            @RequestParam("maxAmount") BigDecimal maxAmount,
+            @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             log.info("GET /api/transactions/amount-range - User: {}, MinAmount: {}, MaxAmount: {}",
-                    auth.getName(), minAmount, maxAmount);
+                    user.getUsername(), minAmount, maxAmount);
             
-            List<Transaction> transactions = transactionService.getTransactionsByAmountRange(minAmount, maxAmount);
+            List<Transaction> transactions = transactionService.getTransactionsByAmountRange(user.getId(), minAmount, maxAmount);
             log.info("Retrieved {} transactions in amount range from {} to {}", 
                     transactions.size(), minAmount, maxAmount);
             
@@ -260,17 +275,72 @@ public class TransactionController {
         }
     }
     
+    /**
+     * Поиск транзакций текущего пользователя по любой комбинации фильтров:
+     * status, type, categoryId, senderBank, recipientBank, recipientInn,
+     * startDate/endDate, minAmount/maxAmount. Плюс sort, direction, page, size.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTransactions(@ModelAttribute TransactionFilterDTO filter, @CurrentUser AuthUser user) {
+        try {
+            log.info("GET /api/transactions/search - User: {}, Filter: {}", user.getUsername(), filter);
+            Page<Transaction> page = transactionService.search(user.getId(), filter);
+            log.info("Found {} transactions, returning page {} of size {}",
+                    page.getTotalElements(), page.getNumber(), page.getNumberOfElements());
+
+            return ResponseEntity.ok(TransactionSearchResultDTO.builder()
+                    .items(page.getContent().stream().map(transactionMapper::toDTO).toList())
+                    .page(page.getNumber())
+                    .size(page.getSize())
+                    .totalElements(page.getTotalElements())
+                    .hasMore(page.hasNext())
+                    .build());
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error searching transactions: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Ошибка при поиске транзакций: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Потоковая выгрузка всех транзакций текущего пользователя (NDJSON или CSV).
+     * Строки пишутся в ответ по мере чтения из базы, поэтому память не зависит от размера истории.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+            @CurrentUser AuthUser user) {
+        log.info("GET /api/transactions/export - User: {}, Format: {}", user.getUsername(), format);
+
+        // id пользователя берем заранее: тело ответа пишется уже в другом потоке
+        Long userId = user.getId();
+
+        MediaType mediaType = format == ExportFormat.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.parseMediaType("application/x-ndjson");
+        String fileName = "transactions." + (format == ExportFormat.CSV ? "csv" : "ndjson");
+
+        StreamingResponseBody body = out -> transactionExportService.export(userId, format, out);
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTransactionById(@PathVariable Long id) {
+    public ResponseEntity<?> getTransactionById(@PathVariable Long id, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("GET /api/transactions/{} - User: {}", id, auth.getName());
+            log.info("GET /api/transactions/{} - User: {}", id, user.getUsername());
             
-            Transaction transaction = transactionService.getTransactionById(id);
+            Transaction transaction = transactionService.getTransactionById(id, user.getId());
             if (transaction != null) {
                 log.info("Retrieved transaction with ID {}", id);
                 LiteTransactionDTO transactionDTO = transactionMapper.toDTO(transaction);
-                return ResponseEntity.ok(transactionDTO);
+                return ResponseEntity.ok().eTag(eTag(transaction)).body(transactionDTO);
             } else {
                 log.info("Transaction with ID {} not found", id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -283,10 +353,31 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Транзакции текущего пользователя.
+     * Если передан cursor или limit — отдаём одну страницу (keyset, новые сверху)
+     * вместе с nextCursor и hasMore. Без параметров — старый ответ списком (для совместимости с фронтом).
+     */
     @GetMapping("/get-all-tr")
-    public ResponseEntity<?> getAllTransactionByAuthUser(Principal principal){
-        // Получаем пользователя по имени
-        User user = userService.getUser(principal.getName());
+    public ResponseEntity<?> getAllTransactionByAuthUser(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @CurrentUser AuthUser user){
+
+        if (cursor != null || limit != null) {
+            try {
+                TransactionPage page = transactionService.getPageByUserId(user.getId(), cursor, limit);
+                return ResponseEntity.ok(TransactionPageDTO.builder()
+                        .items(page.content().stream().map(transactionMapper::toDTO).toList())
+                        .nextCursor(page.nextCursor())
+                        .hasMore(page.hasMore())
+                        .build());
+            } catch (IllegalArgumentException e) {
+                log.warn("Bad cursor for user {}: {}", user.getUsername(), e.getMessage());
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        }
+
         // Транзакции пользователя
        List<LiteTransactionDTO> liteTransactionDTOS =
                transactionService.getByUserId(user.getId())
@@ -299,11 +390,11 @@ public class TransactionController {
 
     // Создание транзакции
     @PostMapping
-    public ResponseEntity<?> createTransaction(@RequestBody TransactionDTO transaction, Principal principal) {
+    public ResponseEntity<?> createTransaction(@RequestBody TransactionDTO transaction, @CurrentUser AuthUser user) {
         try {
-            log.info("POST /api/transactions - User: {}", principal.getName());
+            log.info("POST /api/transactions - User: {}", user.getUsername());
             
-            Transaction savedTransaction = transactionService.create(transaction, principal);
+            Transaction savedTransaction = transactionService.create(transaction, user.getId());
             log.info("Created transaction with ID {}", savedTransaction.getId());
             
             // Используем TransactionMapper для преобразования в DTO
@@ -316,33 +407,174 @@ public class TransactionController {
         }
     }
 
-    // Обновление транзакции
+    // Пакетное создание транзакций (до 10 000 за запрос), ошибки — по каждому элементу
+    @PostMapping("/batch")
+    public ResponseEntity<?> createTransactionsBatch(@RequestBody List<TransactionDTO> transactions, @CurrentUser AuthUser user) {
+        try {
+            log.info("POST /api/transactions/batch - User: {}, Items: {}", user.getUsername(), transactions.size());
+
+            TransactionBatchResultDTO result = transactionService.createBatch(transactions, user.getId());
+            log.info("Batch processed: created {}, failed {}", result.getCreated(), result.getFailed());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            // Ошибки отдельных элементов уже в ответе; сюда попадает только сбой сервера
+            log.error("Error creating transactions batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Ошибка сервера при пакетном создании транзакций"));
+        }
+    }
+
+    /**
+     * Массовая смена статуса: {"status": "ACCEPTED", "ids": [...]} или {"status": ..., "filter": {...}}.
+     * Выполняется одним запросом; в ответе переведённые id и отклонённые id с причиной.
+     */
+    @PostMapping("/status-transition")
+    public ResponseEntity<?> transitionStatus(@RequestBody TransactionStatusTransitionDTO request, @CurrentUser AuthUser user) {
+        try {
+            log.info("POST /api/transactions/status-transition - User: {}, Status: {}", user.getUsername(), request.getStatus());
+
+            TransactionStatusTransitionResultDTO result = transactionService.transitionStatus(user.getId(), request);
+            log.info("Status transition processed: updated {}, rejected {}", result.getUpdated(), result.getRejected());
+
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad status transition request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Обновление транзакции. Ожидаемую версию можно передать заголовком If-Match (ETag из GET)
+     * или полем version в теле; заголовок главнее. Без версии — изменение без проверки, как раньше.
+     * Если транзакцию уже изменили — 409 с её текущим состоянием, чтобы клиент мог повторить правку.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateTransaction(
             @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody TransactionDTO updatedTransaction,
-            Principal principal )  {
+            @CurrentUser AuthUser user )  {
 
-            log.info("PUT /api/transactions/{} - User: {}", id, principal.getName());
-            
-            Transaction transaction = transactionService.update(id, updatedTransaction);
-            log.info("Updated transaction with ID {}", id);
-            
-            // Используем TransactionMapper для преобразования в DTO
-            LiteTransactionDTO transactionDTO = transactionMapper.toDTO(transaction);
-            return ResponseEntity.ok(transactionDTO);
+            log.info("PUT /api/transactions/{} - User: {}", id, user.getUsername());
+
+            Long expectedVersion;
+            try {
+                expectedVersion = ifMatch != null ? parseETag(ifMatch) : updatedTransaction.getVersion();
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+
+            try {
+                Transaction transaction = transactionService.update(id, user.getId(), expectedVersion, updatedTransaction);
+                log.info("Updated transaction with ID {} to version {}", id, transaction.getVersion());
+
+                // Используем TransactionMapper для преобразования в DTO
+                LiteTransactionDTO transactionDTO = transactionMapper.toDTO(transaction);
+                return ResponseEntity.ok().eTag(eTag(transaction)).body(transactionDTO);
+            } catch (TransactionVersionConflictException | OptimisticLockingFailureException e) {
+                log.info("Version conflict on transaction {} for user {}: {}", id, user.getUsername(), e.getMessage());
+                return conflict(id, user.getId());
+            } catch (EntityNotFoundException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Bad PUT for transaction {}: {}", id, e.getMessage());
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
     }
-    
+
+    /**
+     * Частичное изменение транзакции: в теле только изменяемые поля (имена — как в PUT).
+     * Пишутся только изменившиеся строки: правка комментария — один UPDATE.
+     * Версия — как в PUT: If-Match или поле version, при конфликте 409 с текущим состоянием.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchTransaction(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody ObjectNode patch,
+            @CurrentUser AuthUser user) {
+        log.info("PATCH /api/transactions/{} - User: {}, Fields: {}", id, user.getUsername(), patch.size());
+
+        TransactionDTO values;
+        Long expectedVersion;
+        Set<String> fields = new HashSet<>();
+        try {
+            values = objectMapper.treeToValue(patch, TransactionDTO.class);
+            patch.fieldNames().forEachRemaining(fields::add);
+            expectedVersion = ifMatch != null ? parseETag(ifMatch) : values.getVersion();
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Bad PATCH for transaction {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        try {
+            Transaction transaction = transactionService.patch(id, user.getId(), expectedVersion, values, fields);
+            log.info("Patched transaction with ID {}, version {}", id, transaction.getVersion());
+            return ResponseEntity.ok().eTag(eTag(transaction)).body(transactionMapper.toDTO(transaction));
+        } catch (TransactionVersionConflictException | OptimisticLockingFailureException e) {
+            log.info("Version conflict on transaction {} for user {}: {}", id, user.getUsername(), e.getMessage());
+            return conflict(id, user.getId());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad PATCH for transaction {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 409 с текущим состоянием транзакции и её версией в ETag
+    private ResponseEntity<?> conflict(Long id, Long userId) {
+        Transaction current = transactionService.getTransactionById(id, userId);
+        if (current == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Транзакция не найдена"));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .eTag(eTag(current))
+                .body(Map.of(
+                        "error", "Транзакция уже изменена другим запросом, повторите изменение по текущей версии",
+                        "current", transactionMapper.toDTO(current)));
+    }
+
+    private static String eTag(Transaction transaction) {
+        return "\"" + transaction.getVersion() + "\"";
+    }
+
+    // If-Match: "3", W/"3" или * (любая версия — без проверки)
+    private static Long parseETag(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный заголовок If-Match: " + ifMatch);
+        }
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteTransaction(@PathVariable Long id) {
+    public ResponseEntity<?> deleteTransaction(@PathVariable Long id, @CurrentUser AuthUser user) {
         try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            log.info("DELETE /api/transactions/{} - User: {}", id, auth.getName());
+            log.info("DELETE /api/transactions/{} - User: {}", id, user.getUsername());
             
-            transactionService.markAsDeleted(id);
+            transactionService.markAsDeleted(id, user.getId());
             log.info("Marked transaction with ID {} as deleted", id);
             
             return ResponseEntity.ok(Map.of("message", "Транзакция успешно удалена"));
+        } catch (OptimisticLockingFailureException e) {
+            log.info("Version conflict on deleting transaction {}: {}", id, e.getMessage());
+            return conflict(id, user.getId());
         } catch (Exception e) {
             log.error("Error deleting transaction with ID {}: {}", id, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
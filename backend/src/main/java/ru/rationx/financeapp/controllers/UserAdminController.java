@@ -0,0 +1,50 @@
+package ru.rationx.financeapp.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.*;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.services.UserService;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Управление учетными записями пользователей (только для администратора)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class UserAdminController {
+
+    private final UserService userService;
+
+    /**
+     * Включить/отключить или заблокировать/разблокировать пользователя.
+     * Действует сразу, в том числе для уже выданных токенов.
+     */
+    @PatchMapping("/{username}")
+    public ResponseEntity<?> updateAccountState(@PathVariable String username,
+                                                @RequestParam(required = false) Boolean enabled,
+                                                @RequestParam(required = false) Boolean locked,
+                                                Principal principal) {
+        log.info("PATCH /api/admin/users/{}?enabled={}&locked={} - User: {}",
+                username, enabled, locked, principal.getName());
+        try {
+            User user = userService.updateAccountState(username, enabled, locked);
+            return ResponseEntity.ok(Map.of(
+                    "username", user.getUsername(),
+                    "enabled", user.isEnabled(),
+                    "locked", !user.isAccountNonLocked()
+            ));
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class TransactionMapper {
     public LiteTransactionDTO toDTO(Transaction transaction){
         LiteTransactionDTO.LiteTransactionDTOBuilder builder = LiteTransactionDTO.builder()
                 .id(transaction.getId())
+                .version(transaction.getVersion())
                 .status(transaction.getStatus());
         
         // Добавляем данные отправителя
@@ -2,6 +2,7 @@ package ru.rationx.financeapp.models.bank;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import ru.rationx.financeapp.models.subject.Subject;
 
 /**
@@ -15,9 +16,11 @@ import ru.rationx.financeapp.models.subject.Subject;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@BatchSize(size = 50)
 public class Bank {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_seq")
+    @SequenceGenerator(name = "bank_seq", sequenceName = "bank_seq", allocationSize = 50)
     // Уникальный номер банка (создаётся автоматически)
     private Long id;
 
@@ -31,7 +34,7 @@ public class Bank {
     @Column(unique = true)
     private String rbill;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subject_id")
     // Владелец этого банка (участник операции)
     private Subject subject;
@@ -0,0 +1,30 @@
+package ru.rationx.financeapp.models.dto.report;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// Состояние задания на генерацию PDF отчета
+@Builder
+@Getter
+@Setter
+public class ReportJobDTO {
+    private String id;
+
+    // QUEUED, RUNNING, DONE, FAILED или EXPIRED (отчет был готов, но уже удален из хранилища)
+    private String status;
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    private String error;
+
+    // Ссылка на скачивание, когда отчет готов
+    private String downloadUrl;
+}
@@ -2,6 +2,7 @@ package ru.rationx.financeapp.models.dto.statistic;
 
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import ru.rationx.financeapp.models.money.Money;
 
 /*
      Map<String, Object> statistics = new HashMap<>();
@@ -22,7 +23,7 @@ public class StatisticDTO {
     private String type;
 
     @NotNull
-    private Double sum;
+    private Money sum;
 
 
 }
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import ru.rationx.financeapp.models.money.Money;
 import ru.rationx.financeapp.models.subject.Subject;
 import ru.rationx.financeapp.models.transaction.TransactionStatus;
 import ru.rationx.financeapp.models.transaction.TransactionType;
@@ -18,6 +19,9 @@ import ru.rationx.financeapp.models.transaction.TransactionType;
 public class LiteTransactionDTO {
     Long id;
 
+    // Версия транзакции: передаётся обратно при изменении (If-Match или поле version)
+    Long version;
+
     TransactionStatus status;
 
     @NotNull(message = "Значение `personType` не может быть null или пустым ")
@@ -68,7 +72,7 @@ public class LiteTransactionDTO {
     @DecimalMax(value = "999999.99999", inclusive = true)
     @Digits(integer = 6, fraction = 5)
     @Column(nullable = false)
-    private Double sum;
+    private Money sum;
 
     @NotNull(message = "Значение `typeOperation` не может быть null или пустым ")
     private TransactionType typeOperation;
@@ -0,0 +1,27 @@
+package ru.rationx.financeapp.models.dto.transaction;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Результат пакетного создания транзакций: итог и статус по каждому элементу
+@Builder
+@Getter
+@Setter
+public class TransactionBatchResultDTO {
+    private int created;
+    private int failed;
+    private List<ItemResult> items;
+
+    // index — позиция элемента во входном списке; id заполнен, если транзакция создана
+    @Builder
+    @Getter
+    @Setter
+    public static class ItemResult {
+        private int index;
+        private Long id;
+        private String error;
+    }
+}
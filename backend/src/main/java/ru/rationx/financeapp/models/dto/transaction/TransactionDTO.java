@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import ru.rationx.financeapp.models.money.Money;
 import ru.rationx.financeapp.models.subject.Subject;
 import ru.rationx.financeapp.models.transaction.TransactionStatus;
 import ru.rationx.financeapp.models.transaction.TransactionType;
@@ -86,7 +87,7 @@ public class TransactionDTO {
     private String nameBank;
 
         // Основной расчетный счет
-        @NotNull(message = "Значение `bill` не может быть null или пустым ")
+        @NotBlank(message = "Значение `bill` не может быть null или пустым ")
         private String bill;
         // Расчетный счет
         @NotNull(message = "Значение `rBill` не может быть null или пустым ")
@@ -96,7 +97,7 @@ public class TransactionDTO {
     private String nameBankRecip;
 
         // Основной расчетный счет
-        @NotNull(message = "Значение `billRecip` не может быть null или пустым ")
+        @NotBlank(message = "Значение `billRecip` не может быть null или пустым ")
         private String billRecip;
 
         // Расчетный счет
@@ -106,20 +107,23 @@ public class TransactionDTO {
 
     private String comment;
 
-    @NotNull(message = "Значение `category` не может быть null или пустым ")
+    @NotBlank(message = "Значение `category` не может быть null или пустым ")
     private String category;
 
     @NotNull(message = "Значение `transactionType` не может быть null или пустым ")
     private TransactionType transactionType;
 
     @NotNull(message = "Значение `sum` не может быть null или пустым ")
-    @DecimalMin(value = "0.01", inclusive = true)
-    @DecimalMax(value = "999999.99999", inclusive = true)
-    @Digits(integer = 6, fraction = 5)
+    @DecimalMin(value = "0.01", inclusive = true, message = "Сумма должна быть в диапазоне от 0.01 до 999999.99999")
+    @DecimalMax(value = "999999.99999", inclusive = true, message = "Сумма должна быть в диапазоне от 0.01 до 999999.99999")
+    @Digits(integer = 6, fraction = 5, message = "Сумма: не более 6 цифр до запятой и 5 после")
     @Column(nullable = false)
-    private Double sum;
+    private Money sum;
 
     @NotNull(message = "Значение `typeOperation` не может быть null или пустым ")
     private TransactionType typeOperation;
 
+    // Ожидаемая версия при изменении (необязательно): не совпала с текущей — 409 вместо перезаписи
+    private Long version;
+
 }
@@ -0,0 +1,37 @@
+package ru.rationx.financeapp.models.dto.transaction;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Параметры поиска транзакций (/api/transactions/search).
+// Любое поле можно не передавать — тогда фильтр по нему не применяется.
+@Data
+public class TransactionFilterDTO {
+    private TransactionStatus status;
+    private TransactionType type;
+    private Long categoryId;
+    private String senderBank;
+    private String recipientBank;
+    private String recipientInn;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    // Сортировка: dateTime, id, sum или status; направление asc/desc
+    private String sort = "dateTime";
+    private String direction = "desc";
+
+    // Номер страницы (с нуля) и её размер
+    private int page = 0;
+    private int size = 50;
+}
@@ -0,0 +1,20 @@
+package ru.rationx.financeapp.models.dto.transaction;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Страница транзакций для постраничной выдачи (keyset)
+@Builder
+@Getter
+@Setter
+public class TransactionPageDTO {
+    private List<LiteTransactionDTO> items;
+
+    // Непрозрачный токен для следующей страницы (null — страниц больше нет)
+    private String nextCursor;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package ru.rationx.financeapp.models.dto.transaction;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Результат поиска транзакций по фильтру (одна страница)
+@Builder
+@Getter
+@Setter
+public class TransactionSearchResultDTO {
+    private List<LiteTransactionDTO> items;
+    private int page;
+    private int size;
+    private long totalElements;
+    private boolean hasMore;
+}
@@ -0,0 +1,14 @@
+package ru.rationx.financeapp.models.dto.transaction;
+
+import lombok.Data;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+
+import java.util.List;
+
+// Запрос массовой смены статуса: новый статус и либо список id, либо фильтр (как у /api/transactions/search)
+@Data
+public class TransactionStatusTransitionDTO {
+    private TransactionStatus status;
+    private List<Long> ids;
+    private TransactionFilterDTO filter;
+}
@@ -0,0 +1,28 @@
+package ru.rationx.financeapp.models.dto.transaction;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+
+import java.util.List;
+
+// Результат массовой смены статуса: переведённые id и отклонённые id с причиной
+@Builder
+@Getter
+@Setter
+public class TransactionStatusTransitionResultDTO {
+    private TransactionStatus status;
+    private int updated;
+    private int rejected;
+    private List<Long> ids;
+    private List<Rejection> rejections;
+
+    @Builder
+    @Getter
+    @Setter
+    public static class Rejection {
+        private Long id;
+        private String error;
+    }
+}
@@ -0,0 +1,141 @@
+package ru.rationx.financeapp.models.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежная сумма с фиксированной точкой: целое число минимальных единиц (1/100000),
+ * то есть ровно 5 знаков после запятой — как требует ТЗ для суммы операции.
+ * Сложение и вычитание точные, без накопления ошибок округления double.
+ * <p>
+ * В базе хранится как BIGINT (MoneyConverter), в JSON — как обычное число (MoneyJsonSerializer).
+ * Наследует Number, поэтому подходит там, где сумма читается как число (отчеты, валидация @Digits).
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money extends Number implements Comparable<Money> {
+
+    // Знаков после запятой
+    public static final int SCALE = 5;
+    // Минимальных единиц в одной целой единице валюты
+    public static final long UNITS_PER_ONE = 100_000L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long units;
+
+    private Money(long units) {
+        this.units = units;
+    }
+
+    /**
+     * Сумма из минимальных единиц (1/100000)
+     */
+    public static Money ofUnits(long units) {
+        return units == 0 ? ZERO : new Money(units);
+    }
+
+    /**
+     * Сумма из десятичного значения; больше 5 знаков после запятой — ошибка, а не округление
+     */
+    public static Money of(BigDecimal value) {
+        try {
+            return ofUnits(value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Сумма " + value.toPlainString()
+                    + " должна иметь не более " + SCALE + " знаков после запятой и укладываться в диапазон");
+        }
+    }
+
+    /**
+     * Сумма из строки вида "1500.25"
+     */
+    public static Money parse(String value) {
+        try {
+            return of(new BigDecimal(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректная сумма: " + value);
+        }
+    }
+
+    // Количество минимальных единиц
+    public long units() {
+        return units;
+    }
+
+    public Money plus(Money other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    /**
+     * Деление на целое (например, средняя сумма операции) с округлением половины от нуля
+     */
+    public Money dividedBy(long divisor) {
+        long quotient = units / divisor;
+        long remainder = units % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(units) * Long.signum(divisor);
+        }
+        return ofUnits(quotient);
+    }
+
+    public boolean isNegative() {
+        return units < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    // Целая часть суммы
+    @Override
+    public long longValue() {
+        return units / UNITS_PER_ONE;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return (double) units / UNITS_PER_ONE;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && units == other.units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    /**
+     * Десятичная запись без лишних нулей: 1500.5, 0, 12.00001
+     */
+    @Override
+    public String toString() {
+        BigDecimal value = toBigDecimal().stripTrailingZeros();
+        return (value.scale() < 0 ? value.setScale(0) : value).toPlainString();
+    }
+}
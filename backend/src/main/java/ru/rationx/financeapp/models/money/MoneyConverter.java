@@ -0,0 +1,22 @@
+package ru.rationx.financeapp.models.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Money в базе — BIGINT с количеством минимальных единиц (1/100000).
+ * Применяется ко всем полям типа Money автоматически.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.units();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long units) {
+        return units == null ? null : Money.ofUnits(units);
+    }
+}
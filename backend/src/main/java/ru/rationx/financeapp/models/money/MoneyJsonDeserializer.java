@@ -0,0 +1,36 @@
+package ru.rationx.financeapp.models.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+/**
+ * Money из JSON: число (1500.25) или строка ("1500.25").
+ * Число читается как десятичное из текста запроса, без промежуточного double.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.of(p.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return Money.parse(p.getText());
+            }
+        } catch (IllegalArgumentException e) {
+            throw InvalidFormatException.from(p, e.getMessage(), p.getText(), Money.class);
+        }
+        return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+    }
+}
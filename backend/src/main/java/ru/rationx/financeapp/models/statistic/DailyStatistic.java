@@ -0,0 +1,52 @@
+package ru.rationx.financeapp.models.statistic;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+
+import java.time.LocalDate;
+
+/**
+ * Дневной агрегат по транзакциям: сумма и количество за день
+ * в разрезе пользователя, категории и типа операции (приход/расход).
+ * Ведётся инкрементально при создании, изменении и удалении транзакций,
+ * по нему считается статистика для дашборда — без чтения всех транзакций пользователя.
+ * Удалённые транзакции (PAYMENT_DELETED) в агрегат не входят.
+ */
+@Entity
+@Table(name = "daily_statistic", uniqueConstraints = @UniqueConstraint(
+        name = "uk_daily_statistic_key",
+        columnNames = {"user_id", "stat_date", "category_id", "transaction_type"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyStatistic {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_statistic_seq")
+    @SequenceGenerator(name = "daily_statistic_seq", sequenceName = "daily_statistic_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // День операции (по дате транзакции)
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType type;
+
+    // Сумма операций за день в минимальных единицах (1/100000, как Money.units)
+    @Column(nullable = false)
+    private Long sum;
+
+    // Количество операций за день
+    @Column(nullable = false)
+    private Long count;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import ru.rationx.financeapp.models.bank.Bank;
 
 import java.util.List;
@@ -18,9 +19,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@BatchSize(size = 50)
 public class Subject {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subject_seq")
+    @SequenceGenerator(name = "subject_seq", sequenceName = "subject_seq", allocationSize = 50)
     // Уникальный номер участника (создаётся автоматически)
     private Long id;
 
@@ -49,6 +52,7 @@ public class Subject {
     // ИНН участника (обязательное поле, для физлиц - 12 цифр, для юрлиц - 10 цифр)
     @NotNull
     @Pattern(regexp = "^\\d{10}|\\d{12}$", message = "ИНН должен содержать 10 или 12 цифр")
+    @Column(unique = true)
     private String inn;
 
     // Адрес участника
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import ru.rationx.financeapp.models.money.Money;
 
 import java.time.LocalDate;
 
@@ -13,6 +15,10 @@ import java.time.LocalDate;
  * Эта сущность описывает запись о движении средств (регистрация транзакции).
  * Здесь хранится информация о типе операции (дебет/кредит), сумме и дате.
  * Если нужно добавить новое поле — тут.
+ *
+ * Регистр денормализован: владелец, категория, статус и дата проведения копируются из транзакции
+ * (RegService.syncWith), поэтому агрегаты по регистру считаются по покрывающему индексу
+ * (user_id, date, category_id, transaction_type) INCLUDE (sum), без обращения к таблице transaction.
  */
 @Entity
 @Getter
@@ -20,14 +26,22 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@BatchSize(size = 50)
 public class RegTransaction {
     /**
      * Уникальный номер этой записи (создаётся автоматически)
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reg_transaction_seq")
+    @SequenceGenerator(name = "reg_transaction_seq", sequenceName = "reg_transaction_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Версия для оптимистической блокировки (параллельные изменения суммы не перезаписывают друг друга)
+     */
+    @Version
+    private Long version;
+
     /**
      * Тип операции: дебет или кредит (берётся из специального перечисления TransactionType)
      */
@@ -37,18 +51,36 @@ public class RegTransaction {
 
     /**
      * Сумма операции (например, сколько денег перевели)
-     * Согласно ТЗ, должна иметь точность до 5 знаков
+     * Согласно ТЗ, должна иметь точность до 5 знаков: хранится точно, в минимальных единицах (BIGINT)
      */
     @NotNull
     @DecimalMin(value = "0.01", inclusive = true)
     @DecimalMax(value = "999999.99999", inclusive = true)
     @Digits(integer = 6, fraction = 5)
     @Column(nullable = false)
-    private Double sum;
+    private Money sum;
 
     /**
-     * Дата, когда произошла операция (по умолчанию — сегодня)
+     * Дата проведения: день транзакции (по умолчанию — сегодня)
      */
     @Builder.Default
     private LocalDate date = LocalDate.now();
+
+    /**
+     * Владелец транзакции (id пользователя)
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Категория транзакции (id)
+     */
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    /**
+     * Статус транзакции: удалённые (PAYMENT_DELETED) в агрегаты не входят
+     */
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
 }
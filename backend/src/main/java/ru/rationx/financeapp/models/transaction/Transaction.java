@@ -8,7 +8,9 @@ import ru.rationx.financeapp.models.subject.Subject;
 import ru.rationx.financeapp.models.user.User;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Эта сущность описывает одну финансовую операцию (транзакцию).
@@ -16,6 +18,18 @@ import java.util.List;
  */
 
 @Entity
+@Table(indexes = {
+        // Для постраничной выдачи транзакций пользователя по (dateTime, id)
+        @Index(name = "idx_transaction_user_date_id", columnList = "user_id, date_time, id")
+})
+@NamedEntityGraph(name = Transaction.LIST_GRAPH, attributeNodes = {
+        @NamedAttributeNode("senderBank"),
+        @NamedAttributeNode("recipientBank"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("regTransaction"),
+        @NamedAttributeNode("subjectSender"),
+        @NamedAttributeNode("subjectGetter")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,11 +40,21 @@ import java.util.List;
 // Здесь хранятся все детали — кто, кому, когда и что сделал.
 public class Transaction {
 
+    // Граф загрузки для списков: всё, что нужно маппингу в LiteTransactionDTO, одним select.
+    // Если граф не применён, ленивые ссылки догружаются пачками: у Bank, Subject, Category и RegTransaction есть @BatchSize
+    public static final String LIST_GRAPH = "Transaction.list";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     // Уникальный номер транзакции (создаётся автоматически)
     private Long id;
 
+    // Версия для оптимистической блокировки: растёт с каждым изменением транзакции.
+    // Изменение по устаревшей версии отклоняется (409), а не перезаписывает чужие правки
+    @Version
+    private Long version;
+
     @NotNull
     @Enumerated(EnumType.STRING)
     // Здесь хранится текущий статус транзакции (например, новая, отменена и т.д.)
@@ -39,44 +63,45 @@ public class Transaction {
     // -----------------
     // Банк
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private Bank senderBank;
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private Bank recipientBank;
 
     //------------------
 
     @NotNull
-    // Когда произошла операция (дата и время)
+    // Когда произошла операция (дата и время). Без NULL: по (dateTime, id) идёт постраничная выдача
+    @Column(nullable = false)
     private LocalDateTime dateTime = LocalDateTime.now();
 
     // Комментарий к транзакции (необязательный)
     private String comment;
 
     // Категория операции (например, "Продукты", "Коммунальные услуги")
-    @ManyToOne(cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinColumn(name = "category_id")
     private Category category;
 
     // Связь с детальной информацией о транзакции (сумма, тип - дебет/кредит)
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "reg_transaction_id")
     private RegTransaction regTransaction;
 
     // Кто отправил деньги (или начал операцию)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subject_id", nullable = false)
     private Subject subjectSender;
 
     // Кто получил деньги (или был получателем в операции)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subject_getter_id", nullable = false )
     private Subject subjectGetter;
 
     // Инициатор операции
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -87,6 +112,10 @@ public class Transaction {
      * Не допущены к редактированию операции со статусами: подтвержденная, в обработке, отменена, платеж выполнен, платеж удален, возврат.
      */
     public boolean isEditable() {
+        return isEditable(status);
+    }
+
+    public static boolean isEditable(TransactionStatus status) {
         return status == TransactionStatus.NEW;
     }
 
@@ -96,6 +125,10 @@ public class Transaction {
      * не могут быть удалены
      */
     public boolean isDeletable() {
+        return isDeletable(status);
+    }
+
+    public static boolean isDeletable(TransactionStatus status) {
         return status != TransactionStatus.ACCEPTED &&
                status != TransactionStatus.PROCESSING &&
                status != TransactionStatus.CANCELED &&
@@ -103,4 +136,27 @@ public class Transaction {
                status != TransactionStatus.RETURN;
     }
 
+    /**
+     * Статусы, из которых транзакцию можно перевести в target (массовая смена статуса).
+     * Удаление — по правилам isDeletable, остальные статусы — по isEditable (из NEW)
+     * или следующим шагом обработки платежа: ACCEPTED → PROCESSING → PAYMENT_COMPLETED.
+     */
+    public static Set<TransactionStatus> allowedSourcesFor(TransactionStatus target) {
+        Set<TransactionStatus> sources = EnumSet.noneOf(TransactionStatus.class);
+        for (TransactionStatus status : TransactionStatus.values()) {
+            if (status == target) {
+                continue;
+            }
+            if (target == TransactionStatus.PAYMENT_DELETED ? isDeletable(status) : isEditable(status)) {
+                sources.add(status);
+            }
+        }
+        if (target == TransactionStatus.PROCESSING) {
+            sources.add(TransactionStatus.ACCEPTED);
+        } else if (target == TransactionStatus.PAYMENT_COMPLETED) {
+            sources.add(TransactionStatus.PROCESSING);
+        }
+        return sources;
+    }
+
 }
@@ -0,0 +1,37 @@
+package ru.rationx.financeapp.models.user;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Аутентифицированный пользователь для Spring Security.
+ * Кроме логина и ролей хранит id пользователя, чтобы сервисы не искали его по имени.
+ */
+@Getter
+public class AuthUser extends User {
+
+    // id пользователя в user_table
+    private final Long id;
+
+    public AuthUser(Long id, String username, String password, boolean enabled, boolean accountNonExpired,
+                    boolean credentialsNonExpired, boolean accountNonLocked,
+                    Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, accountNonExpired, credentialsNonExpired, accountNonLocked, authorities);
+        this.id = id;
+    }
+
+    // Копия без пароля — для кэша и для контекста безопасности
+    public AuthUser withoutPassword() {
+        return new AuthUser(id, getUsername(), "", isEnabled(), isAccountNonExpired(),
+                isCredentialsNonExpired(), isAccountNonLocked(), getAuthorities());
+    }
+
+    // Тот же пользователь с другими ролями (например, из подписанного токена)
+    public AuthUser withAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        return new AuthUser(id, getUsername(), "", isEnabled(), isAccountNonExpired(),
+                isCredentialsNonExpired(), isAccountNonLocked(), authorities);
+    }
+}
@@ -5,6 +5,6 @@ import ru.rationx.financeapp.models.bank.Bank;
 
 import java.util.Optional;
 
-public interface BankRepository extends JpaRepository<Bank,Long> {
+public interface BankRepository extends JpaRepository<Bank,Long>, BankUpsertRepository {
     Optional<Bank> findByBill(String bill);
 }
@@ -0,0 +1,25 @@
+package ru.rationx.financeapp.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Пакетный upsert банковских счетов по bill (основному счёту).
+ * Реализация — {@link BankUpsertRepositoryImpl}, подключается к BankRepository как фрагмент.
+ */
+public interface BankUpsertRepository {
+
+    /**
+     * Данные одного счёта для upsert
+     */
+    record BankRow(String bill, String rbill, String nameBank, Long subjectId) {
+    }
+
+    /**
+     * Создаёт недостающие счета и обновляет существующие (имя банка и rbill) одним запросом.
+     * Пустые nameBank/rbill существующие значения не затирают, владелец у существующего счёта не меняется.
+     *
+     * @return bill -> id счёта
+     */
+    Map<String, Long> upsertAll(Collection<BankRow> rows);
+}
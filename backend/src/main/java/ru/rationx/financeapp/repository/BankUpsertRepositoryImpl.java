@@ -0,0 +1,77 @@
+package ru.rationx.financeapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class BankUpsertRepositoryImpl implements BankUpsertRepository {
+
+    // Все счета одной пачкой через unnest массивов: один запрос и один round trip на любое количество строк
+    private static final String UPSERT_SQL = """
+            INSERT INTO bank (id, bill, rbill, name_bank, subject_id)
+            SELECT nextval('bank_seq'), u.bill, u.rbill, u.name_bank, u.subject_id
+            FROM unnest(?::text[], ?::text[], ?::text[], ?::bigint[]) AS u(bill, rbill, name_bank, subject_id)
+            ON CONFLICT (bill) DO UPDATE SET
+                name_bank = COALESCE(NULLIF(EXCLUDED.name_bank, ''), bank.name_bank),
+                rbill = COALESCE(NULLIF(EXCLUDED.rbill, ''), bank.rbill)
+            RETURNING id, bill
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Map<String, Long> upsertAll(Collection<BankRow> rows) {
+        // Один bill может встретиться несколько раз — в одном INSERT ... ON CONFLICT строка
+        // не может обновляться дважды, поэтому оставляем последнюю. Сортировка по bill даёт
+        // одинаковый порядок блокировок у параллельных запросов и исключает взаимоблокировки.
+        TreeMap<String, BankRow> unique = new TreeMap<>();
+        for (BankRow row : rows) {
+            if (row.bill() != null && !row.bill().isBlank()) {
+                unique.put(row.bill(), row);
+            }
+        }
+        if (unique.isEmpty()) {
+            return Map.of();
+        }
+
+        // Отправляем в базу всё, что Hibernate ещё держит в памяти (например, новых субъектов)
+        entityManager.flush();
+
+        int n = unique.size();
+        String[] bills = new String[n];
+        String[] rbills = new String[n];
+        String[] names = new String[n];
+        Long[] subjects = new Long[n];
+        int i = 0;
+        for (BankRow row : unique.values()) {
+            bills[i] = row.bill();
+            rbills[i] = row.rbill();
+            names[i] = row.nameBank();
+            subjects[i] = row.subjectId();
+            i++;
+        }
+
+        Map<String, Long> ids = new HashMap<>(n * 2);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+            ps.setArray(1, con.createArrayOf("text", bills));
+            ps.setArray(2, con.createArrayOf("text", rbills));
+            ps.setArray(3, con.createArrayOf("text", names));
+            ps.setArray(4, con.createArrayOf("bigint", subjects));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString("bill"), rs.getLong("id"));
+        });
+        return ids;
+    }
+}
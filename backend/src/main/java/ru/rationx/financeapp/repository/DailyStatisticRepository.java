@@ -0,0 +1,155 @@
+package ru.rationx.financeapp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rationx.financeapp.models.statistic.DailyStatistic;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Репозиторий дневных агрегатов по транзакциям.
+ * Запись агрегатов — только через addDelta (атомарный upsert), чтение — сгруппированными запросами.
+ */
+@Repository
+public interface DailyStatisticRepository extends JpaRepository<DailyStatistic, Long> {
+
+    // Итог по типу операции
+    interface TypeTotal {
+        TransactionType getType();
+        // Сумма в минимальных единицах (1/100000)
+        Long getSum();
+        Long getCount();
+    }
+
+    // Итог по категории
+    interface CategoryTotal {
+        Long getCategoryId();
+        // Сумма в минимальных единицах (1/100000)
+        Long getSum();
+        Long getCount();
+    }
+
+    // Итог за день по типу операции
+    interface DayTotal {
+        LocalDate getDate();
+        TransactionType getType();
+        // Сумма в минимальных единицах (1/100000)
+        Long getSum();
+        Long getCount();
+    }
+
+    // Итог по интервалу (день/неделя/месяц) и типу операции
+    interface BucketTotal {
+        LocalDate getBucket();
+        TransactionType getType();
+        // Сумма в минимальных единицах (1/100000)
+        Long getSum();
+        Long getCount();
+    }
+
+    // Итог по категории и типу операции
+    interface CategoryTypeTotal {
+        Long getCategoryId();
+        TransactionType getType();
+        // Сумма в минимальных единицах (1/100000)
+        Long getSum();
+        Long getCount();
+    }
+
+    /**
+     * Прибавляет к агрегату (sum в минимальных единицах, count); отрицательные значения — вычитание.
+     * Строка создаётся, если её ещё нет.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO daily_statistic (id, user_id, stat_date, category_id, transaction_type, sum, count)
+            VALUES (nextval('daily_statistic_seq'), :userId, :date, :categoryId, :type, :sum, :count)
+            ON CONFLICT (user_id, stat_date, category_id, transaction_type) DO UPDATE SET
+                sum = daily_statistic.sum + EXCLUDED.sum,
+                count = daily_statistic.count + EXCLUDED.count
+            """, nativeQuery = true)
+    void addDelta(@Param("userId") Long userId,
+                  @Param("date") LocalDate date,
+                  @Param("categoryId") Long categoryId,
+                  @Param("type") String type,
+                  @Param("sum") long sum,
+                  @Param("count") long count);
+
+    @Query("SELECT d.type AS type, SUM(d.sum) AS sum, SUM(d.count) AS count " +
+            "FROM DailyStatistic d WHERE d.userId = :userId GROUP BY d.type")
+    List<TypeTotal> totalsByType(@Param("userId") Long userId);
+
+    @Query("SELECT d.categoryId AS categoryId, SUM(d.sum) AS sum, SUM(d.count) AS count " +
+            "FROM DailyStatistic d WHERE d.userId = :userId GROUP BY d.categoryId")
+    List<CategoryTotal> totalsByCategory(@Param("userId") Long userId);
+
+    // Итоги по категории и типу за всё время: из них складываются и общие итоги, и суммы по категориям (StatisticSummary)
+    @Query("SELECT d.categoryId AS categoryId, d.type AS type, SUM(d.sum) AS sum, SUM(d.count) AS count " +
+            "FROM DailyStatistic d WHERE d.userId = :userId GROUP BY d.categoryId, d.type")
+    List<CategoryTypeTotal> totalsByCategoryAndType(@Param("userId") Long userId);
+
+    @Query("SELECT d.date AS date, d.type AS type, SUM(d.sum) AS sum, SUM(d.count) AS count " +
+            "FROM DailyStatistic d WHERE d.userId = :userId AND d.date BETWEEN :start AND :end " +
+            "GROUP BY d.date, d.type ORDER BY d.date")
+    List<DayTotal> totalsByDay(@Param("userId") Long userId,
+                               @Param("start") LocalDate start,
+                               @Param("end") LocalDate end);
+
+    /**
+     * Итоги за период с разбивкой по интервалам: date_trunc('day' | 'week' | 'month').
+     * Из базы приходят только сгруппированные строки — по две на интервал.
+     */
+    @Query(value = """
+            SELECT CAST(date_trunc(:granularity, d.stat_date) AS date) AS bucket,
+                   d.transaction_type AS type,
+                   CAST(SUM(d.sum) AS BIGINT) AS sum,
+                   CAST(SUM(d.count) AS BIGINT) AS count
+            FROM daily_statistic d
+            WHERE d.user_id = :userId AND d.stat_date BETWEEN :start AND :end
+            GROUP BY 1, 2
+            ORDER BY 1
+            """, nativeQuery = true)
+    List<BucketTotal> totalsByBucket(@Param("userId") Long userId,
+                                     @Param("start") LocalDate start,
+                                     @Param("end") LocalDate end,
+                                     @Param("granularity") String granularity);
+
+    // Итоги по категориям для одного типа операции, крупнейшие сверху
+    @Query("SELECT d.categoryId AS categoryId, SUM(d.sum) AS sum, SUM(d.count) AS count " +
+            "FROM DailyStatistic d WHERE d.userId = :userId AND d.type = :type " +
+            "GROUP BY d.categoryId ORDER BY SUM(d.sum) DESC")
+    List<CategoryTotal> totalsByCategoryForType(@Param("userId") Long userId,
+                                                @Param("type") TransactionType type);
+
+    // Блокируем таблицу агрегатов на время пересчёта: параллельные upsert подождут коммита
+    @Modifying
+    @Query(value = "LOCK TABLE daily_statistic IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_statistic", nativeQuery = true)
+    int deleteAllRows();
+
+    // Полный пересчёт агрегатов из регистра накопления (для первичного заполнения или восстановления).
+    // Все нужные поля есть в самом регистре: запрос читает только покрывающий индекс idx_reg_transaction_stat.
+    // Записи без даты или типа в агрегат не входят, как и в DailyStatisticService.snapshot
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_statistic (id, user_id, stat_date, category_id, transaction_type, sum, count)
+            SELECT nextval('daily_statistic_seq'), g.user_id, g.stat_date, g.category_id, g.transaction_type, g.sum, g.count
+            FROM (SELECT r.user_id, r.date AS stat_date, r.category_id, r.transaction_type,
+                         SUM(r.sum) AS sum, COUNT(*) AS count
+                  FROM reg_transaction r
+                  WHERE r.status <> 'PAYMENT_DELETED' AND r.user_id IS NOT NULL AND r.category_id IS NOT NULL
+                    AND r.date IS NOT NULL AND r.transaction_type IS NOT NULL
+                  GROUP BY r.user_id, r.date, r.category_id, r.transaction_type) g
+            """, nativeQuery = true)
+    int rebuildFromRegister();
+}
@@ -1,6 +1,9 @@
 package ru.rationx.financeapp.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.rationx.financeapp.models.subject.Subject;
 
 import java.util.Optional;
@@ -9,4 +12,27 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     boolean existsByName(String name);
     Optional<Subject> findByName(String name);
     Optional<Subject> findByInn(String inn);
+
+    /**
+     * Создаёт субъекта или перезаписывает данные существующего с тем же ИНН — одним запросом.
+     * Опирается на уникальный индекс по inn (гарантирован миграцией V6), поэтому два параллельных создания
+     * не дадут дубликат. id из subject_seq берётся и при конфликте — вызывать только после промаха findByInn.
+     * @return id созданного или обновлённого субъекта
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO subject (id, inn, name, address, recipient_phone, person_type)
+            VALUES (nextval('subject_seq'), :inn, :name, :address, :phone, :personType)
+            ON CONFLICT (inn) DO UPDATE SET
+                name = EXCLUDED.name,
+                address = EXCLUDED.address,
+                recipient_phone = EXCLUDED.recipient_phone,
+                person_type = EXCLUDED.person_type
+            RETURNING id
+            """, nativeQuery = true)
+    Long upsertByInn(@Param("inn") String inn,
+                     @Param("name") String name,
+                     @Param("address") String address,
+                     @Param("phone") String phone,
+                     @Param("personType") String personType);
 }
@@ -1,57 +1,123 @@
 package ru.rationx.financeapp.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.rationx.financeapp.models.money.Money;
 import ru.rationx.financeapp.models.transaction.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для работы с транзакциями.
  * Здесь можно искать, сохранять и удалять транзакции в базе данных.
  * Добавить фильтрацию по ИНН, статусу или другим полям — тут.
+ *
+ * Все методы, которые отдают транзакции для списков и карточки, помечены графом {@link Transaction#LIST_GRAPH}:
+ * банки, субъекты, категория и регистр подтягиваются в том же select, без N+1.
+ * Новые списочные методы нужно помечать так же.
  */
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>,
+        JpaSpecificationExecutor<Transaction>, TransactionStatusRepository {
+
+    @Override
+    @EntityGraph(Transaction.LIST_GRAPH)
+    Optional<Transaction> findById(Long id);
+
+    @Override
+    @EntityGraph(Transaction.LIST_GRAPH)
+    Page<Transaction> findAll(Specification<Transaction> spec, Pageable pageable);
 
     // По id пользователя
-   List<Transaction> findAllByUserId(Long id);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    List<Transaction> findAllByUserId(Long id);
+
+    // Транзакции пользователя за период (для отчёта) — фильтр по дате в базе, по индексу (user_id, date_time)
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.dateTime BETWEEN :start AND :end " +
+            "ORDER BY t.dateTime, t.id")
+    List<Transaction> findByUserIdAndDateBetween(@Param("userId") Long userId,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    // Первая страница транзакций пользователя (keyset, новые сверху).
+    // Опирается на индекс (user_id, date_time, id)
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId ORDER BY t.dateTime DESC, t.id DESC")
+    List<Transaction> findFirstPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    // Следующая страница: всё, что строго "после" курсора (dateTime, id)
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId " +
+            "AND (t.dateTime < :dateTime OR (t.dateTime = :dateTime AND t.id < :id)) " +
+            "ORDER BY t.dateTime DESC, t.id DESC")
+    List<Transaction> findPageByUserIdAfter(@Param("userId") Long userId,
+                                            @Param("dateTime") LocalDateTime dateTime,
+                                            @Param("id") Long id,
+                                            Limit limit);
 
     // По username пользователя
     //List<Transaction> findAllByUserUsername(String username);
 
-    // По статусу
-    List<Transaction> findByStatus(TransactionStatus status);
+    // Все выборки ниже ограничены владельцем: условие по user_id стоит в самом запросе,
+    // поэтому объем работы зависит только от транзакций пользователя, а не от всей таблицы.
+
+    // Одна транзакция пользователя (чужая — как отсутствующая)
+    @EntityGraph(Transaction.LIST_GRAPH)
+    Optional<Transaction> findByIdAndUserId(Long id, Long userId);
+
+    // Транзакция пользователя для изменения. Блокировки в базе нет: при коммите версия увеличивается
+    // (даже если изменился только регистр), а параллельное изменение той же версии завершится конфликтом
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<Transaction> findForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
+    // По статусу — индекс (user_id, status)
+    @EntityGraph(Transaction.LIST_GRAPH)
+    List<Transaction> findByUserIdAndStatus(Long userId, TransactionStatus status);
 
     // По ИНН получателя
-    @Query("SELECT t FROM Transaction t WHERE t.subjectGetter.inn = :inn")
-    List<Transaction> findByRecipientInn(@Param("inn") String inn);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.subjectGetter.inn = :inn")
+    List<Transaction> findByUserIdAndRecipientInn(@Param("userId") Long userId, @Param("inn") String inn);
 
     // По типу транзакции
-    @Query("SELECT t FROM Transaction t WHERE t.regTransaction.transactionType = :type")
-    List<Transaction> findByType(@Param("type") TransactionType type);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.regTransaction.transactionType = :type")
+    List<Transaction> findByUserIdAndType(@Param("userId") Long userId, @Param("type") TransactionType type);
 
     // По категории
-    @Query("SELECT t FROM Transaction t WHERE t.category.id = :categoryId")
-    List<Transaction> findByCategoryId(@Param("categoryId") Long categoryId);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.category.id = :categoryId")
+    List<Transaction> findByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
 
     // По банку отправителя
-    @Query("SELECT t FROM Transaction t WHERE t.senderBank.nameBank = :bankName")
-    List<Transaction> findBySenderBank(@Param("bankName") String bankName);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.senderBank.nameBank = :bankName")
+    List<Transaction> findByUserIdAndSenderBank(@Param("userId") Long userId, @Param("bankName") String bankName);
 
     // По банку получателя
-    @Query("SELECT t FROM Transaction t WHERE t.recipientBank.nameBank = :bankName")
-    List<Transaction> findByRecipientBank(@Param("bankName") String bankName);
-
-    // По дате (диапазон)
-    @Query("SELECT t FROM Transaction t WHERE t.dateTime BETWEEN :start AND :end")
-    List<Transaction> findByDateBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.recipientBank.nameBank = :bankName")
+    List<Transaction> findByUserIdAndRecipientBank(@Param("userId") Long userId, @Param("bankName") String bankName);
 
     // По сумме (диапазон)
-    @Query("SELECT t FROM Transaction t WHERE t.regTransaction.sum BETWEEN :min AND :max")
-    List<Transaction> findByAmountBetween(@Param("min") BigDecimal min, @Param("max") BigDecimal max);
+    @EntityGraph(Transaction.LIST_GRAPH)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.regTransaction.sum BETWEEN :min AND :max")
+    List<Transaction> findByUserIdAndAmountBetween(@Param("userId") Long userId,
+                                                   @Param("min") Money min,
+                                                   @Param("max") Money max);
 }
@@ -0,0 +1,39 @@
+package ru.rationx.financeapp.repository;
+
+import ru.rationx.financeapp.models.dto.transaction.TransactionFilterDTO;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Массовая смена статуса транзакций одним запросом (UPDATE ... WHERE status IN (...) RETURNING id).
+ * Вместе со статусом в том же запросе растёт version, статус переносится в регистр накопления,
+ * а при удалении (PAYMENT_DELETED) вклад транзакций вычитается из дневных агрегатов.
+ * Реализация — {@link TransactionStatusRepositoryImpl}, подключается к TransactionRepository как фрагмент.
+ */
+public interface TransactionStatusRepository {
+
+    /**
+     * Переводит в статус target транзакции пользователя из списка ids, текущий статус которых входит в sources.
+     *
+     * @return id переведённых транзакций
+     */
+    List<Long> transitionByIds(Long userId, Collection<Long> ids, TransactionStatus target,
+                               Set<TransactionStatus> sources);
+
+    /**
+     * То же для всех транзакций пользователя, подходящих под фильтр (пустые поля фильтра не применяются).
+     *
+     * @return id переведённых транзакций
+     */
+    List<Long> transitionByFilter(Long userId, TransactionFilterDTO filter, TransactionStatus target,
+                                  Set<TransactionStatus> sources);
+
+    /**
+     * Текущие статусы транзакций пользователя (чужих и несуществующих id в ответе нет)
+     */
+    Map<Long, TransactionStatus> findStatuses(Long userId, Collection<Long> ids);
+}
@@ -0,0 +1,185 @@
+package ru.rationx.financeapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rationx.financeapp.models.dto.transaction.TransactionFilterDTO;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class TransactionStatusRepositoryImpl implements TransactionStatusRepository {
+
+    // Смена статуса одним запросом: candidate — отобранные транзакции, moved — те, чей статус допускает переход.
+    // Регистр и дневные агрегаты меняются в том же запросе (data-modifying CTE), без отдельных round trip
+    private static final String TRANSITION_SQL = """
+            WITH candidate AS (%s),
+            moved AS (
+                UPDATE transaction t SET status = ?, version = t.version + 1
+                FROM candidate c
+                WHERE t.id = c.id AND t.status = ANY(?::text[])
+                RETURNING t.id, t.reg_transaction_id
+            ),
+            reg AS (
+                UPDATE reg_transaction r SET status = ?, version = r.version + 1
+                FROM moved m
+                WHERE r.id = m.reg_transaction_id
+                RETURNING r.user_id, r.date, r.category_id, r.transaction_type, r.sum
+            ),
+            stat AS (
+                INSERT INTO daily_statistic (id, user_id, stat_date, category_id, transaction_type, sum, count)
+                SELECT nextval('daily_statistic_seq'), g.user_id, g.stat_date, g.category_id, g.transaction_type,
+                       -g.sum, -g.count
+                FROM (SELECT r.user_id, r.date AS stat_date, r.category_id, r.transaction_type,
+                             SUM(r.sum) AS sum, COUNT(*) AS count
+                      FROM reg r
+                      WHERE ? AND r.user_id IS NOT NULL AND r.category_id IS NOT NULL AND r.date IS NOT NULL
+                        AND r.transaction_type IS NOT NULL
+                      GROUP BY r.user_id, r.date, r.category_id, r.transaction_type) g
+                ON CONFLICT (user_id, stat_date, category_id, transaction_type) DO UPDATE SET
+                    sum = daily_statistic.sum + EXCLUDED.sum,
+                    count = daily_statistic.count + EXCLUDED.count
+            )
+            SELECT id FROM moved ORDER BY id
+            """;
+
+    private static final String BY_IDS = "SELECT t.id FROM transaction t WHERE t.user_id = ? AND t.id = ANY(?::bigint[])";
+
+    private static final String BY_FILTER = """
+            SELECT t.id
+            FROM transaction t
+                     LEFT JOIN reg_transaction r ON r.id = t.reg_transaction_id
+                     LEFT JOIN bank sb ON sb.id = t.sender_bank_id
+                     LEFT JOIN bank rb ON rb.id = t.recipient_bank_id
+                     LEFT JOIN subject g ON g.id = t.subject_getter_id
+            WHERE t.user_id = ?""";
+
+    private static final String STATUSES_SQL =
+            "SELECT id, status FROM transaction WHERE user_id = ? AND id = ANY(?::bigint[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<Long> transitionByIds(Long userId, Collection<Long> ids, TransactionStatus target,
+                                      Set<TransactionStatus> sources) {
+        if (ids.isEmpty() || sources.isEmpty()) {
+            return List.of();
+        }
+        return transition(BY_IDS, new ArrayList<>(List.of(userId, ids.toArray(new Long[0]))), target, sources);
+    }
+
+    @Override
+    @Transactional
+    public List<Long> transitionByFilter(Long userId, TransactionFilterDTO filter, TransactionStatus target,
+                                         Set<TransactionStatus> sources) {
+        if (sources.isEmpty()) {
+            return List.of();
+        }
+        // Условия — как в TransactionSpecifications.matches, только заданные поля фильтра
+        StringBuilder candidate = new StringBuilder(BY_FILTER);
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        if (filter.getStatus() != null) {
+            candidate.append(" AND t.status = ?");
+            params.add(filter.getStatus().name());
+        }
+        if (filter.getType() != null) {
+            candidate.append(" AND r.transaction_type = ?");
+            params.add(filter.getType().name());
+        }
+        if (filter.getCategoryId() != null) {
+            candidate.append(" AND t.category_id = ?");
+            params.add(filter.getCategoryId());
+        }
+        if (filter.getSenderBank() != null && !filter.getSenderBank().isBlank()) {
+            candidate.append(" AND sb.name_bank = ?");
+            params.add(filter.getSenderBank());
+        }
+        if (filter.getRecipientBank() != null && !filter.getRecipientBank().isBlank()) {
+            candidate.append(" AND rb.name_bank = ?");
+            params.add(filter.getRecipientBank());
+        }
+        if (filter.getRecipientInn() != null && !filter.getRecipientInn().isBlank()) {
+            candidate.append(" AND g.inn = ?");
+            params.add(filter.getRecipientInn());
+        }
+        if (filter.getStartDate() != null) {
+            candidate.append(" AND t.date_time >= ?");
+            params.add(filter.getStartDate().atStartOfDay());
+        }
+        if (filter.getEndDate() != null) {
+            candidate.append(" AND t.date_time < ?");
+            params.add(filter.getEndDate().plusDays(1).atStartOfDay());
+        }
+        if (filter.getMinAmount() != null) {
+            candidate.append(" AND r.sum >= ?");
+            params.add(Money.of(filter.getMinAmount()).units());
+        }
+        if (filter.getMaxAmount() != null) {
+            candidate.append(" AND r.sum <= ?");
+            params.add(Money.of(filter.getMaxAmount()).units());
+        }
+        return transition(candidate.toString(), params, target, sources);
+    }
+
+    @Override
+    public Map<Long, TransactionStatus> findStatuses(Long userId, Collection<Long> ids) {
+        Map<Long, TransactionStatus> statuses = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) {
+            return statuses;
+        }
+        jdbcTemplate.query(con -> prepare(con, STATUSES_SQL, List.of(userId, ids.toArray(new Long[0]))), rs -> {
+            String status = rs.getString("status");
+            statuses.put(rs.getLong("id"), status == null ? null : TransactionStatus.valueOf(status));
+        });
+        return statuses;
+    }
+
+    private List<Long> transition(String candidate, List<Object> params, TransactionStatus target,
+                                  Set<TransactionStatus> sources) {
+        // Отправляем в базу всё, что Hibernate ещё держит в памяти: запрос идёт мимо него
+        entityManager.flush();
+
+        params.add(target.name());
+        params.add(sources.stream().map(Enum::name).toArray(String[]::new));
+        params.add(target.name());
+        params.add(target == TransactionStatus.PAYMENT_DELETED);
+
+        List<Long> moved = new ArrayList<>();
+        jdbcTemplate.query(con -> prepare(con, TRANSITION_SQL.formatted(candidate), params),
+                rs -> {
+                    moved.add(rs.getLong("id"));
+                });
+        // Транзакции и регистр изменены в обход Hibernate: загруженные ранее сущности устарели,
+        // и следующий find в этой транзакции вернул бы прежний статус и версию — убираем их из контекста
+        entityManager.clear();
+        return moved;
+    }
+
+    // Массивы уходят в базу одним параметром (text[] / bigint[]), остальное — как есть
+    private static PreparedStatement prepare(Connection con, String sql, List<Object> params) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof String[] values) {
+                ps.setArray(i + 1, con.createArrayOf("text", values));
+            } else if (param instanceof Long[] values) {
+                ps.setArray(i + 1, con.createArrayOf("bigint", values));
+            } else {
+                ps.setObject(i + 1, param);
+            }
+        }
+        return ps;
+    }
+}
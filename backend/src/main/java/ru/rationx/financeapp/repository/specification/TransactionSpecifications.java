@@ -0,0 +1,75 @@
+package ru.rationx.financeapp.repository.specification;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import ru.rationx.financeapp.models.dto.transaction.TransactionFilterDTO;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.RegTransaction;
+import ru.rationx.financeapp.models.transaction.Transaction;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Условия (Specification) для поиска транзакций.
+ * Все заданные в фильтре поля собираются в один WHERE через AND,
+ * поэтому любую комбинацию фильтров база выполняет одним запросом.
+ * Если нужно добавить новый фильтр — тут.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Только транзакции указанного пользователя
+     */
+    public static Specification<Transaction> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    /**
+     * Собирает условия из фильтра. Пустые поля фильтра пропускаются.
+     */
+    public static Specification<Transaction> matches(TransactionFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getType() != null) {
+                predicates.add(cb.equal(root.get("regTransaction").get("transactionType"), filter.getType()));
+            }
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            }
+            if (filter.getSenderBank() != null && !filter.getSenderBank().isBlank()) {
+                predicates.add(cb.equal(root.get("senderBank").get("nameBank"), filter.getSenderBank()));
+            }
+            if (filter.getRecipientBank() != null && !filter.getRecipientBank().isBlank()) {
+                predicates.add(cb.equal(root.get("recipientBank").get("nameBank"), filter.getRecipientBank()));
+            }
+            if (filter.getRecipientInn() != null && !filter.getRecipientInn().isBlank()) {
+                predicates.add(cb.equal(root.get("subjectGetter").get("inn"), filter.getRecipientInn()));
+            }
+            if (filter.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateTime"), filter.getStartDate().atStartOfDay()));
+            }
+            if (filter.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dateTime"), filter.getEndDate().atTime(LocalTime.MAX)));
+            }
+            if (filter.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<RegTransaction>get("regTransaction").<Money>get("sum"),
+                        Money.of(filter.getMinAmount())));
+            }
+            if (filter.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<RegTransaction>get("regTransaction").<Money>get("sum"),
+                        Money.of(filter.getMaxAmount())));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package ru.rationx.financeapp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import ru.rationx.financeapp.models.user.AuthUser;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш данных пользователя для проверки JWT (id, роли, включён/заблокирован) — без пароля.
+ * Фильтр аутентификации идёт в базу только при промахе кэша.
+ * При отключении или блокировке пользователя запись удаляется явно (evict),
+ * а изменения в обход приложения подхватываются по истечении ttl.
+ */
+@Slf4j
+@Component
+public class AuthUserCache {
+
+    private record Entry(AuthUser user, long loadedAt) {
+    }
+
+    private final AuthUserService authUserService;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    // Счётчик сбросов: загрузка, начатая до evict, не должна вернуть в кэш старые данные
+    private long evictions;
+
+    public AuthUserCache(AuthUserService authUserService,
+                         @Value("${spring.auth.user-cache.ttl:5m}") Duration ttl,
+                         @Value("${spring.auth.user-cache.max-size:10000}") int maxSize) {
+        this.authUserService = authUserService;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Пользователь по логину: из кэша или из базы
+     *
+     * @throws UsernameNotFoundException если пользователя нет
+     */
+    public AuthUser get(String username) {
+        long now = System.currentTimeMillis();
+        long evictionsBefore;
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && now - entry.loadedAt() < ttlMillis) {
+                return entry.user();
+            }
+            evictionsBefore = evictions;
+        }
+
+        // Загружаем вне блокировки: запрос в базу не должен задерживать остальные запросы
+        AuthUser user = authUserService.loadUserByUsername(username).withoutPassword();
+        synchronized (entries) {
+            if (evictions == evictionsBefore) {
+                entries.put(username, new Entry(user, now));
+            }
+        }
+        return user;
+    }
+
+    // Сбросить данные пользователя (изменились роли, статус, пользователь отключён)
+    public void evict(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+            evictions++;
+        }
+        log.debug("Данные пользователя {} удалены из кэша аутентификации", username);
+    }
+}
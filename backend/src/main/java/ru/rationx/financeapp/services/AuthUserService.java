@@ -2,11 +2,10 @@ package ru.rationx.financeapp.services;
 
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import ru.rationx.financeapp.models.user.AuthUser;
 import ru.rationx.financeapp.repository.UserRepository;
 
 /**
@@ -28,15 +27,19 @@ public class AuthUserService implements UserDetailsService {
      */
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public AuthUser loadUserByUsername(String username) throws UsernameNotFoundException {
         return repository.findByUsername(username)
-                .map(user -> User.withUsername(user.getUsername())
-                        .password(user.getPassword())
-                        .authorities(user.getRoleUsers()
-                                        .stream()
-                                        .map(roleUser -> new SimpleGrantedAuthority("ROLE_" + roleUser.getNameRole())).toList())
-                        .disabled(!user.isEnabled())
-                        .build())
+                .map(user -> new AuthUser(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getPassword(),
+                        user.isEnabled(),
+                        user.isAccountNonExpired(),
+                        user.isCredentialsNonExpired(),
+                        user.isAccountNonLocked(),
+                        user.getRoleUsers()
+                                .stream()
+                                .map(roleUser -> new SimpleGrantedAuthority("ROLE_" + roleUser.getNameRole())).toList()))
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не был найден"));
     }
 }
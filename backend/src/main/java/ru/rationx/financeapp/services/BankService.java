@@ -8,10 +8,13 @@ import ru.rationx.financeapp.models.bank.DoNotFoundBank;
 import ru.rationx.financeapp.models.subject.Subject;
 import ru.rationx.financeapp.models.transaction.Transaction;
 import ru.rationx.financeapp.repository.BankRepository;
+import ru.rationx.financeapp.repository.BankUpsertRepository;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -19,13 +22,23 @@ import java.util.Objects;
 public class BankService {
     private final BankRepository bankRepository;
 
-    public Bank create(String nameBank, String rBill, String bill, Subject subject) {
-        return Bank.builder()
-                .bill(bill)
-                .rbill(rBill)
-                .nameBank(nameBank)
-                .subject(subject)
-                .build();
+    // Создаём счёт или обновляем существующий с тем же bill (один запрос, без гонки на unique)
+    public Bank getOrCreateBank(String nameBank, String rBill, String bill, Subject subject) {
+        Map<String, Long> ids = bankRepository.upsertAll(List.of(
+                new BankUpsertRepository.BankRow(bill, rBill, nameBank, subject == null ? null : subject.getId())));
+        return bankRepository.getReferenceById(ids.get(bill));
+    }
+
+    /**
+     * Пакетное разрешение счетов: все счета отправителей и получателей одним запросом.
+     * @return bill -> счёт (ссылка без дополнительного select)
+     */
+    public Map<String, Bank> resolveBanks(Collection<BankUpsertRepository.BankRow> rows) {
+        Map<String, Long> ids = bankRepository.upsertAll(rows);
+        Map<String, Bank> banks = new HashMap<>(ids.size() * 2);
+        ids.forEach((bill, id) -> banks.put(bill, bankRepository.getReferenceById(id)));
+        log.info("Разрешено счетов одним запросом: {}", banks.size());
+        return banks;
     }
 
     public Bank findBank(String bill){
@@ -33,9 +46,16 @@ public class BankService {
                 .orElseThrow(() -> new DoNotFoundBank("Не был найден банк по такому счету."));
     }
 
+    // Счёт по номеру, если он уже есть (без исключения на промахе)
+    public Optional<Bank> findByBill(String bill) {
+        return bankRepository.findByBill(bill);
+    }
+
+    // Если счёт уже есть — обновляем имя банка и расчетный счет, если нет — создаём
     public void updateOrCreateBank(Map<String, Object> data){
         if (data == null) {
             log.error("К сожалению возникла ошибка, data не может быть `null`");
+            return;
         }
 
         Object nameBankObj = data.get("nameBank");
@@ -43,36 +63,16 @@ public class BankService {
         Object rBillObj = data.get("rBill");
         Object subjObj = data.get("subj");
 
-        try {
-            // Если уже есть определенный банковский счет, изменить имя и расчетный счет.
-            if (billObj instanceof String bill && !bill.isBlank()) {
-                Bank bank = findBank(bill);
-                log.info("Был найден счет `{}`", bill);
-                if (nameBankObj instanceof String nameBank && !nameBank.isBlank()) {
-                    bank.setNameBank(nameBank);
-                }
-                if (rBillObj instanceof String rBill && !rBill.isBlank())  {
-                    bank.setRbill(rBill);
-                }
-                bankRepository.save(bank);
-                log.info("Данные о счете были обновлены.");
-
-            }
-        } catch (DoNotFoundBank ex) {
-            if (subjObj instanceof Subject subject)  {
-                Bank bank = create(
-                        String.valueOf(billObj),
-                        String.valueOf(rBillObj),
-                        String.valueOf(nameBankObj),
-                        subject);
-
-                bankRepository.save(bank);
-            }
-            log.info("Был создан новый банк т.к не было найдено расчетного счета.");
+        if (billObj instanceof String bill && !bill.isBlank()) {
+            getOrCreateBank(
+                    nameBankObj instanceof String nameBank ? nameBank : null,
+                    rBillObj instanceof String rBill ? rBill : null,
+                    bill,
+                    subjObj instanceof Subject subject ? subject : null);
+            log.info("Данные о счете `{}` были обновлены.", bill);
         }
     }
 
-
 }
 //    // Обновление банка
 //    public void update(List<Bank> bank, Map<String, Object> data) {
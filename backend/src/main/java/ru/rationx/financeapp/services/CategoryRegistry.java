@@ -0,0 +1,143 @@
+package ru.rationx.financeapp.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rationx.financeapp.models.transaction.Category;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.repository.CategoryRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Справочник категорий в памяти.
+ * Категорий немного (десятки), а ищутся они при каждом создании и изменении транзакции,
+ * поэтому держим их в памяти: по id и по имени без учёта регистра.
+ * Загружается при старте, изменения через CategoryService попадают сюда после коммита.
+ *
+ * Наружу отдаются копии: общий экземпляр никто не сможет поменять в обход справочника.
+ */
+@Slf4j
+@Component
+public class CategoryRegistry {
+
+    private final CategoryRepository categoryRepository;
+    // Новые категории создаём в отдельной транзакции БД, чтобы откат внешней не оставил в справочнике
+    // категорию, которой нет в базе
+    private final TransactionTemplate newTransaction;
+
+    private final Map<Long, Category> byId = new ConcurrentHashMap<>();
+    private final Map<String, Category> byName = new ConcurrentHashMap<>();
+
+    public CategoryRegistry(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void reload() {
+        byId.clear();
+        byName.clear();
+        categoryRepository.findAll().forEach(this::store);
+        log.info("Справочник категорий загружен: {} шт.", byId.size());
+    }
+
+    public Optional<Category> findById(Long id) {
+        return Optional.ofNullable(byId.get(id)).map(CategoryRegistry::copy);
+    }
+
+    public Optional<Category> findByName(String name) {
+        return Optional.ofNullable(byName.get(key(name))).map(CategoryRegistry::copy);
+    }
+
+    /**
+     * Ищет категорию по имени без учёта регистра, при отсутствии — создаёт.
+     * Запрос к базе идёт вне computeIfAbsent: транзакция не держит блокировку карты, а параллельные вызовы
+     * не ждут друг друга. Дубликат не появится: одновременные вставки разводит уникальный индекс
+     * по lower(name), проигравший берёт категорию победителя, а в справочник попадает первая (putIfAbsent).
+     */
+    public Category getOrCreate(String name, TransactionType type) {
+        String key = key(name);
+        Category category = byName.get(key);
+        if (category == null) {
+            Category created = copy(createInNewTransaction(name, type));
+            category = byName.putIfAbsent(key, created);
+            if (category == null) {
+                byId.putIfAbsent(created.getId(), created);
+                category = created;
+            }
+        }
+        return copy(category);
+    }
+
+    /**
+     * Добавить или обновить категорию в справочнике (после коммита текущей транзакции)
+     */
+    public void put(Category category) {
+        Category snapshot = copy(category);
+        afterCommit(() -> store(snapshot));
+    }
+
+    /**
+     * Убрать категорию из справочника (после коммита текущей транзакции)
+     */
+    public void remove(Long id) {
+        afterCommit(() -> {
+            Category old = byId.remove(id);
+            if (old != null) {
+                byName.remove(key(old.getName()), old);
+            }
+        });
+    }
+
+    private void store(Category category) {
+        Category snapshot = copy(category);
+        Category old = byId.put(snapshot.getId(), snapshot);
+        if (old != null) {
+            byName.remove(key(old.getName()), old);
+        }
+        byName.put(key(snapshot.getName()), snapshot);
+    }
+
+    private Category createInNewTransaction(String name, TransactionType type) {
+        try {
+            return newTransaction.execute(status -> categoryRepository.findByNameIgnoreCase(name)
+                    .orElseGet(() -> {
+                        log.info("Создаем новую категорию - {}", name);
+                        return categoryRepository.save(new Category(name, type));
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // Ту же категорию (с точностью до регистра) параллельно создал другой поток или экземпляр приложения
+            return categoryRepository.findByNameIgnoreCase(name).orElseThrow(() -> e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String key(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Category copy(Category category) {
+        return new Category(category.getId(), category.getName(), category.getApplicableType());
+    }
+}
@@ -6,7 +6,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.rationx.financeapp.models.transaction.Category;
 import ru.rationx.financeapp.models.transaction.TransactionType;
-import ru.rationx.financeapp.models.transaction.exception.DoNotFoundCategory;
 import ru.rationx.financeapp.repository.CategoryRepository;
 
 import java.util.List;
@@ -21,9 +20,11 @@ import java.util.Optional;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
     
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryRegistry categoryRegistry) {
         this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
     }
     
     /**
@@ -53,39 +54,25 @@ public class CategoryService {
     */
 
 
+    // Ищем категорию по id или имени в справочнике в памяти; в базу идём только за новой категорией
     public Category findOrCreateCategory(String category, TransactionType transactionType){
+        // Сначала проверим, не является ли категория числом (то есть ID)
         try {
-            // Сначала проверим, не является ли категория числом (то есть ID)
-            try {
-                Long categoryId = Long.parseLong(category);
-                // Если это число, пробуем найти категорию по ID
-                Optional<Category> existingCategory = categoryRepository.findById(categoryId);
-                if (existingCategory.isPresent()) {
-                    log.info("Найдена категория по ID: {}", categoryId);
-                    return existingCategory.get();
-                }
-                // Если категория с таким ID не найдена, продолжаем и создадим категорию с правильным именем
-                log.warn("Категория с ID {} не найдена, будет создана новая", categoryId);
-            } catch (NumberFormatException e) {
-                // Если это не число, продолжаем обычный поиск по имени
-                log.debug("Передано не числовое значение для категории: {}", category);
+            Long categoryId = Long.parseLong(category);
+            Optional<Category> existingCategory = categoryRegistry.findById(categoryId);
+            if (existingCategory.isPresent()) {
+                log.debug("Найдена категория по ID: {}", categoryId);
+                return existingCategory.get();
             }
-            
-            // Пытаемся найти категорию по имени (игнорируя регистр)
-            Category cat = categoryRepository.findByNameIgnoreCase(category)
-                    .orElseThrow(() -> new DoNotFoundCategory("Категория не найдена"));
-            return cat;
-
-        } catch (DoNotFoundCategory ex) {
-            log.info(ex.getMessage() + ": Создаем новую категорию - {}", category);
-            Category cat = Category.builder()
-                    .applicableType(transactionType)
-                    .name(category)
-                    .build();
-
-            categoryRepository.save(cat);
-            return cat;
+            // Если категория с таким ID не найдена, продолжаем и создадим категорию с правильным именем
+            log.warn("Категория с ID {} не найдена, будет создана новая", categoryId);
+        } catch (NumberFormatException e) {
+            // Если это не число, продолжаем обычный поиск по имени
+            log.debug("Передано не числовое значение для категории: {}", category);
         }
+
+        // Ищем по имени (игнорируя регистр), при отсутствии — создаём
+        return categoryRegistry.getOrCreate(category, transactionType);
     }
 
     // Обновить данные с использованием Map
@@ -108,7 +95,7 @@ public class CategoryService {
         category.setName(String.valueOf(data.get("category")));
         category.setApplicableType(TransactionType.valueOf(String.valueOf(data.get("type"))));
 
-        categoryRepository.save(category);
+        categoryRegistry.put(categoryRepository.save(category));
         log.info("Сохранение категории успешно.");
     }
 
@@ -116,12 +103,14 @@ public class CategoryService {
     @Transactional
     public Category createCategory(Category category) {
         // Проверяем, существует ли уже категория с таким именем
-        Optional<Category> existing = categoryRepository.findByNameIgnoreCase(category.getName());
+        Optional<Category> existing = categoryRegistry.findByName(category.getName());
         if (existing.isPresent()) {
             throw new IllegalArgumentException("Категория с именем '" + category.getName() + "' уже существует");
         }
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryRegistry.put(saved);
+        return saved;
     }
     
     /**
@@ -133,7 +122,7 @@ public class CategoryService {
         
         // Проверяем, не пытаемся ли мы переименовать в уже существующую категорию
         if (!existing.getName().equalsIgnoreCase(updatedCategory.getName())) {
-            Optional<Category> duplicateCheck = categoryRepository.findByNameIgnoreCase(updatedCategory.getName());
+            Optional<Category> duplicateCheck = categoryRegistry.findByName(updatedCategory.getName());
             if (duplicateCheck.isPresent()) {
                 throw new IllegalArgumentException("Категория с именем '" + updatedCategory.getName() + "' уже существует");
             }
@@ -142,7 +131,9 @@ public class CategoryService {
         existing.setName(updatedCategory.getName());
         existing.setApplicableType(updatedCategory.getApplicableType());
         
-        return categoryRepository.save(existing);
+        Category saved = categoryRepository.save(existing);
+        categoryRegistry.put(saved);
+        return saved;
     }
     
     /**
@@ -152,6 +143,7 @@ public class CategoryService {
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
         categoryRepository.delete(category);
+        categoryRegistry.remove(id);
     }
 
     /**
@@ -178,9 +170,9 @@ public class CategoryService {
     }
     
     private void createCategoryIfNotExists(String name, TransactionType type) {
-        if (categoryRepository.findByNameIgnoreCase(name).isEmpty()) {
+        if (categoryRegistry.findByName(name).isEmpty()) {
             Category category = new Category(name, type);
-            categoryRepository.save(category);
+            categoryRegistry.put(categoryRepository.save(category));
         }
     }
 }
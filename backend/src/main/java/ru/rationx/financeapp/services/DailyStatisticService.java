@@ -0,0 +1,133 @@
+package ru.rationx.financeapp.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.repository.DailyStatisticRepository;
+import ru.rationx.financeapp.services.report.ReportDataVersions;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Ведение дневных агрегатов (DailyStatistic).
+ * Вызывается из TransactionService и RegService в той же транзакции БД, что и изменение самой транзакции,
+ * поэтому агрегаты всегда согласованы с данными.
+ *
+ * Схема простая: берём вклад транзакции в агрегат до изменения и после, и применяем разницу.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyStatisticService {
+
+    private final DailyStatisticRepository dailyStatisticRepository;
+    private final ReportDataVersions reportDataVersions;
+
+    /**
+     * Вклад одной транзакции в дневной агрегат (sum — в минимальных единицах Money)
+     */
+    public record Contribution(Long userId, LocalDate date, Long categoryId, TransactionType type, long sum) {
+        Key key() {
+            return new Key(userId, date, categoryId, type);
+        }
+    }
+
+    private record Key(Long userId, LocalDate date, Long categoryId, TransactionType type) {
+    }
+
+    /**
+     * Текущий вклад транзакции в агрегат.
+     * null — транзакция в агрегат не входит (удалена или не хватает данных: без типа строка агрегата
+     * не совпала бы ни с одним ключом ON CONFLICT).
+     */
+    public Contribution snapshot(Transaction transaction) {
+        if (transaction == null
+                || transaction.getStatus() == TransactionStatus.PAYMENT_DELETED
+                || transaction.getUser() == null
+                || transaction.getCategory() == null
+                || transaction.getRegTransaction() == null
+                || transaction.getRegTransaction().getSum() == null
+                || transaction.getRegTransaction().getTransactionType() == null
+                || transaction.getDateTime() == null) {
+            return null;
+        }
+        return new Contribution(
+                transaction.getUser().getId(),
+                transaction.getDateTime().toLocalDate(),
+                transaction.getCategory().getId(),
+                transaction.getRegTransaction().getTransactionType(),
+                transaction.getRegTransaction().getSum().units());
+    }
+
+    public void add(Contribution contribution) {
+        apply(contribution, 1);
+    }
+
+    public void subtract(Contribution contribution) {
+        apply(contribution, -1);
+    }
+
+    /**
+     * Переносит вклад транзакции: было before, стало after (любое из них может быть null)
+     */
+    public void replace(Contribution before, Contribution after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null && after != null && before.key().equals(after.key())) {
+            // Тот же день/категория/тип — меняется только сумма, количество прежнее
+            dailyStatisticRepository.addDelta(after.userId(), after.date(), after.categoryId(), after.type().name(),
+                    after.sum() - before.sum(), 0);
+            return;
+        }
+        subtract(before);
+        add(after);
+    }
+
+    /**
+     * Добавляет вклад сразу многих транзакций (пакетное создание):
+     * сначала сворачиваем по ключу в памяти, затем один upsert на ключ.
+     */
+    public void addAll(Collection<Contribution> contributions) {
+        Map<Key, long[]> grouped = new HashMap<>();
+        for (Contribution c : contributions) {
+            if (c == null) {
+                continue;
+            }
+            long[] acc = grouped.computeIfAbsent(c.key(), k -> new long[2]);
+            acc[0] += c.sum();
+            acc[1] += 1;
+        }
+        grouped.forEach((key, acc) -> dailyStatisticRepository.addDelta(
+                key.userId(), key.date(), key.categoryId(), key.type().name(), acc[0], acc[1]));
+    }
+
+    /**
+     * Полный пересчёт агрегатов из регистра накопления
+     * @return количество записанных строк агрегата
+     */
+    @Transactional
+    public int rebuild() {
+        dailyStatisticRepository.lockForRebuild();
+        int deleted = dailyStatisticRepository.deleteAllRows();
+        int inserted = dailyStatisticRepository.rebuildFromRegister();
+        reportDataVersions.bumpAll();
+        log.info("Дневные агрегаты пересчитаны: удалено {}, записано {}", deleted, inserted);
+        return inserted;
+    }
+
+    private void apply(Contribution c, int sign) {
+        if (c == null) {
+            return;
+        }
+        dailyStatisticRepository.addDelta(c.userId(), c.date(), c.categoryId(), c.type().name(), sign * c.sum(), sign);
+    }
+}
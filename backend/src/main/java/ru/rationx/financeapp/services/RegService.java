@@ -4,6 +4,7 @@ package ru.rationx.financeapp.services;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.rationx.financeapp.models.money.Money;
 import ru.rationx.financeapp.models.transaction.RegTransaction;
 import ru.rationx.financeapp.models.transaction.Transaction;
 import ru.rationx.financeapp.models.transaction.TransactionType;
@@ -19,14 +20,16 @@ import java.util.Objects;
 @Slf4j
 public class RegService {
     private final RegTransactionsRepository regTransactionsRepository;
+    private final DailyStatisticService dailyStatisticService;
 
-    public void updateReg(Transaction transaction, Double sum, TransactionType transactionType){
+    public void updateReg(Transaction transaction, Money sum, TransactionType transactionType){
         if (transaction == null) {
             log.error("[РегистрСведений_ПриходРасход]: Вы передаете некорректную транзакцию...");
         }
 
         if (transaction.getRegTransaction() != null) {
             Map<String, Object> oldData = new HashMap<>();
+            DailyStatisticService.Contribution before = dailyStatisticService.snapshot(transaction);
 
             RegTransaction regTransaction = transaction.getRegTransaction();
                 oldData.put("old_sum",regTransaction.getSum()) ;
@@ -34,8 +37,11 @@ public class RegService {
 
                 regTransaction.setSum(sum);
                 regTransaction.setTransactionType(transactionType);
+                syncWith(transaction);
 
                 regTransactionsRepository.save(regTransaction);
+                // Разницу между старой и новой суммой/типом переносим в дневные агрегаты
+                dailyStatisticService.replace(before, dailyStatisticService.snapshot(transaction));
                 log.info("\nВы успешно обновили данные регистра накопления sum: [before: {} after: {}] " +
                         "type: [before: {} after: {}]",oldData.get("old_sum"),
                         regTransaction.getSum(),
@@ -46,4 +52,21 @@ public class RegService {
         log.error("[РегистрСведений_ПриходРасход]: Сумма не была обновлена..");
     }
 
+    /**
+     * Переносит в запись регистра владельца, категорию, статус и дату проведения транзакции.
+     * Вызывается везде, где они меняются: создание, изменение и удаление транзакции.
+     */
+    public void syncWith(Transaction transaction) {
+        RegTransaction regTransaction = transaction.getRegTransaction();
+        if (regTransaction == null) {
+            return;
+        }
+        regTransaction.setUserId(transaction.getUser() != null ? transaction.getUser().getId() : null);
+        regTransaction.setCategoryId(transaction.getCategory() != null ? transaction.getCategory().getId() : null);
+        regTransaction.setStatus(transaction.getStatus());
+        if (transaction.getDateTime() != null) {
+            regTransaction.setDate(transaction.getDateTime().toLocalDate());
+        }
+    }
+
 }
@@ -4,52 +4,122 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.rationx.financeapp.models.dto.statistic.StatisticDTO;
-import ru.rationx.financeapp.models.transaction.RegTransaction;
-import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.Category;
 import ru.rationx.financeapp.models.transaction.TransactionType;
-import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.repository.DailyStatisticRepository;
+import ru.rationx.financeapp.services.statistic.StatisticSummary;
 
-import java.security.Principal;
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Статистика для дашборда.
+ * Всё считается по дневным агрегатам (DailyStatistic), а не по сырым транзакциям,
+ * поэтому время ответа не растёт вместе с историей пользователя.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class StatisticService {
-    private final TransactionService transactionService;
-    private final UserService userService;
 
-    public List<RegTransaction> getReg(User user) {
-        return transactionService.getByUserId(user.getId())
-                .stream()
-                .map(Transaction::getRegTransaction).toList();
+    // Шаг разбивки статистики за период
+    public enum Granularity {
+        DAY, WEEK, MONTH
     }
 
+    private final DailyStatisticRepository dailyStatisticRepository;
+    private final CategoryRegistry categoryRegistry;
+
     // Общая статистика на дашборды
-    public Map<String, Object> generalStatistic(Principal principal){
-        User user = userService.getUser(principal.getName());
-        // Получаем регистр
-        List<RegTransaction> regTransactions = getReg(user);
-
-        Double totalIncome = regTransactions.stream()
-                .filter(regTransaction -> regTransaction.getTransactionType().equals(TransactionType.DEBIT))
-                .mapToDouble(RegTransaction::getSum)
-                .reduce(Double::sum)
-                .orElse(0);
-
-        Double totalExpense = regTransactions.stream()
-                .filter(regTransaction -> regTransaction.getTransactionType().equals(TransactionType.CREDIT))
-                .mapToDouble(RegTransaction::getSum)
-                .reduce(Double::sum)
-                .orElse(0);
+    public Map<String, Object> generalStatistic(Long userId) {
+        long totalIncome = 0;
+        long totalExpense = 0;
+        long count = 0;
+        for (DailyStatisticRepository.TypeTotal total : dailyStatisticRepository.totalsByType(userId)) {
+            if (total.getType() == TransactionType.DEBIT) {
+                totalIncome += total.getSum();
+            } else {
+                totalExpense += total.getSum();
+            }
+            count += total.getCount();
+        }
+
+        return generalView(Money.ofUnits(totalIncome), Money.ofUnits(totalExpense), count);
+    }
+
+    // Статистика по категориям
+    public Map<String, StatisticDTO> getByCategory(Long userId) {
+        Map<String, StatisticDTO> result = new HashMap<>();
+        for (DailyStatisticRepository.CategoryTotal total : dailyStatisticRepository.totalsByCategory(userId)) {
+            addCategory(result, total.getCategoryId(), Money.ofUnits(total.getSum()));
+        }
+        return result;
+    }
+
+    /**
+     * Получить статистику за период по дням
+     *
+     * @param userId id пользователя
+     * @param start начальная дата
+     * @param end конечная дата
+     * @return список статистики по дням
+     */
+    public List<Map<String, Object>> getPeriodStats(Long userId, LocalDate start, LocalDate end) {
+        // Строки приходят отсортированными по дате: на каждый день максимум две (приход и расход).
+        // Накопитель дня: {приход, расход, количество}, суммы в минимальных единицах
+        Map<LocalDate, long[]> byDate = new LinkedHashMap<>();
+        for (DailyStatisticRepository.DayTotal total : dailyStatisticRepository.totalsByDay(userId, start, end)) {
+            long[] day = byDate.computeIfAbsent(total.getDate(), date -> new long[3]);
+            day[total.getType() == TransactionType.DEBIT ? 0 : 1] += total.getSum();
+            day[2] += total.getCount();
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(byDate.size());
+        byDate.forEach((date, day) -> result.add(dayView(date, Money.ofUnits(day[0]), Money.ofUnits(day[1]), day[2])));
+        return result;
+    }
+
+    /**
+     * Общие итоги, суммы по категориям и разбивка по дням за период — двумя сгруппированными запросами:
+     * итоги за всё время по категории и типу (несколько строк на категорию) и дни, ограниченные периодом в SQL.
+     * Сущности DailyStatistic не загружаются — только проекции.
+     * Для мест, где нужны сразу несколько представлений (например, PDF-отчёт).
+     */
+    public StatisticSummary summarize(Long userId, LocalDate start, LocalDate end) {
+        StatisticSummary summary = new StatisticSummary(start, end);
+        for (DailyStatisticRepository.CategoryTypeTotal total : dailyStatisticRepository.totalsByCategoryAndType(userId)) {
+            summary.addTotal(total.getCategoryId(), total.getType(), total.getSum(), total.getCount());
+        }
+        for (DailyStatisticRepository.DayTotal total : dailyStatisticRepository.totalsByDay(userId, start, end)) {
+            summary.addDay(total.getDate(), total.getType(), total.getSum(), total.getCount());
+        }
+        return summary;
+    }
 
+    // То же, что generalStatistic, но из готовой сводки
+    public Map<String, Object> generalStatistic(StatisticSummary summary) {
+        return generalView(summary.getTotalIncome(), summary.getTotalExpense(), summary.getTransactionCount());
+    }
+
+    // То же, что getByCategory, но из готовой сводки
+    public Map<String, StatisticDTO> getByCategory(StatisticSummary summary) {
+        Map<String, StatisticDTO> result = new HashMap<>();
+        summary.getCategorySums().forEach((categoryId, sum) -> addCategory(result, categoryId, sum));
+        return result;
+    }
+
+    // То же, что getPeriodStats, но из готовой сводки
+    public List<Map<String, Object>> getPeriodStats(StatisticSummary summary) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        summary.forEachDay((date, income, expenses, count) -> result.add(dayView(date, income, expenses, count)));
+        return result;
+    }
+
+    private static Map<String, Object> generalView(Money totalIncome, Money totalExpense, long count) {
         // баланс по транзакциям
-        Double balance = totalIncome - totalExpense;
-        long count = regTransactions.size();
+        Money balance = totalIncome.minus(totalExpense);
 
         return Map.of(
                 "totalIncome", totalIncome,
@@ -57,84 +127,103 @@ public class StatisticService {
                 "balance",balance,
                 "transactionCount",count
         );
+    }
 
+    private void addCategory(Map<String, StatisticDTO> result, Long categoryId, Money sum) {
+        // Имя и тип категории берём из справочника в памяти
+        Optional<Category> category = categoryRegistry.findById(categoryId);
+        String name = category.map(Category::getName).orElse("Категория #" + categoryId);
+        String type = category.map(Category::getApplicableType).map(TransactionType::getDescription).orElse(null);
+
+        result.merge(name, StatisticDTO.builder().type(type).sum(sum).build(),
+                (o, o2) -> StatisticDTO.builder().type(o.getType()).sum(o.getSum().plus(o2.getSum())).build());
     }
 
-    // Статистика по категориям
-    public Map<String, StatisticDTO> getByCategory(Principal principal) {
-        User user = userService.getUser(principal.getName());
-
-        List<Transaction> byUserId = transactionService.getByUserId(user.getId());
-
-        return byUserId.stream().collect(Collectors.toMap(transaction -> transaction.getCategory().getName(),
-                        o -> StatisticDTO.builder()
-                                .type(o.getCategory().getApplicableType().getDescription())
-                                .sum(o.getRegTransaction().getSum())
-                                .build(), (o, o2) -> {
-                                    return StatisticDTO.builder().type(o.getType())
-                                    .sum(o.getSum() + o2.getSum())
-                                    .build();
-                                }
-                        )
-        );
+    private static Map<String, Object> dayView(LocalDate date, Money income, Money expenses, long count) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("period", Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        stats.put("income", income);
+        stats.put("expenses", expenses);
+        stats.put("balance", income.minus(expenses));
+        stats.put("transactionCount", (int) count);
+        return stats;
     }
 
     /**
-     * Получить статистику за период по дням
-     *
-     * @param principal пользователь
-     * @param startDate начальная дата
-     * @param endDate конечная дата
-     * @return список статистики по дням
+     * Итоги за период [start, end] (по дням включительно) с разбивкой по интервалам.
+     * Один запрос к агрегатам: итоги за весь период складываются из интервалов.
      */
-    public List<Map<String, Object>> getPeriodStats(Principal principal, Date startDate, Date endDate) {
-        User user = userService.getUser(principal.getName());
-        
-        // Получаем транзакции за период
-        List<Transaction> transactions = transactionService.getTransactionsByDateRange(
-                principal.getName(), startDate, endDate);
-        
-        // Группируем транзакции по дате
-        Map<LocalDate, List<Transaction>> groupedByDate = transactions.stream()
-                .filter(tx -> tx.getDateTime() != null)
-                .collect(Collectors.groupingBy(tx -> tx.getDateTime()
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDate()));
-        
-        List<Map<String, Object>> result = new ArrayList<>();
-        
-        // Преобразуем группированные данные в список статистики по дням
-        for (Map.Entry<LocalDate, List<Transaction>> entry : groupedByDate.entrySet()) {
-            LocalDate date = entry.getKey();
-            List<Transaction> dailyTransactions = entry.getValue();
-            
-            // Подсчитываем доходы и расходы
-            double income = dailyTransactions.stream()
-                    .filter(tx -> tx.getRegTransaction().getTransactionType() == TransactionType.DEBIT)
-                    .mapToDouble(tx -> tx.getRegTransaction().getSum())
-                    .sum();
-            
-            double expenses = dailyTransactions.stream()
-                    .filter(tx -> tx.getRegTransaction().getTransactionType() == TransactionType.CREDIT)
-                    .mapToDouble(tx -> tx.getRegTransaction().getSum())
-                    .sum();
-            
-            double balance = income - expenses;
-            int count = dailyTransactions.size();
-            
-            Map<String, Object> dailyStats = new HashMap<>();
-            dailyStats.put("period", Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
-            dailyStats.put("income", income);
-            dailyStats.put("expenses", expenses);
-            dailyStats.put("balance", balance);
-            dailyStats.put("transactionCount", count);
-            
-            result.add(dailyStats);
+    public Map<String, Object> getStatisticsForPeriod(Long userId, LocalDate start, LocalDate end,
+                                                      Granularity granularity) {
+        long totalIncome = 0;
+        long totalExpense = 0;
+        long count = 0;
+        // Накопитель интервала: {приход, расход, количество}, суммы в минимальных единицах
+        Map<LocalDate, long[]> buckets = new LinkedHashMap<>();
+
+        for (DailyStatisticRepository.BucketTotal total : dailyStatisticRepository.totalsByBucket(
+                userId, start, end, granularity.name().toLowerCase(Locale.ROOT))) {
+            long[] bucket = buckets.computeIfAbsent(total.getBucket(), date -> new long[3]);
+
+            if (total.getType() == TransactionType.DEBIT) {
+                totalIncome += total.getSum();
+                bucket[0] += total.getSum();
+            } else {
+                totalExpense += total.getSum();
+                bucket[1] += total.getSum();
+            }
+            bucket[2] += total.getCount();
+            count += total.getCount();
         }
-        
-        // Сортируем по дате
-        result.sort((a, b) -> ((Date) a.get("period")).compareTo((Date) b.get("period")));
-        
+
+        List<Map<String, Object>> bucketViews = new ArrayList<>(buckets.size());
+        buckets.forEach((date, bucket) -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("period", date);
+            stats.put("income", Money.ofUnits(bucket[0]));
+            stats.put("expenses", Money.ofUnits(bucket[1]));
+            stats.put("balance", Money.ofUnits(bucket[0] - bucket[1]));
+            stats.put("transactionCount", bucket[2]);
+            bucketViews.add(stats);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("period", Map.of("start", start, "end", end));
+        result.put("granularity", granularity);
+        result.put("totalIncome", Money.ofUnits(totalIncome));
+        result.put("totalExpense", Money.ofUnits(totalExpense));
+        result.put("balance", Money.ofUnits(totalIncome - totalExpense));
+        result.put("transactionCount", count);
+        result.put("buckets", bucketViews);
+        return result;
+    }
+
+    /**
+     * Итоги по типу операции: сумма, количество, средняя сумма операции и крупнейшая категория.
+     * Один сгруппированный по категориям запрос — всё остальное складывается из его строк.
+     */
+    public Map<String, Object> getStatisticsByType(Long userId, TransactionType type) {
+        List<DailyStatisticRepository.CategoryTotal> totals =
+                dailyStatisticRepository.totalsByCategoryForType(userId, type);
+
+        long sum = 0;
+        long count = 0;
+        for (DailyStatisticRepository.CategoryTotal total : totals) {
+            sum += total.getSum();
+            count += total.getCount();
+        }
+
+        // Строки отсортированы по сумме — первая и есть крупнейшая категория
+        String largestCategory = totals.isEmpty() ? null : categoryRegistry.findById(totals.get(0).getCategoryId())
+                .map(Category::getName)
+                .orElse(null);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("type", type);
+        result.put("total", Money.ofUnits(sum));
+        result.put("average", count == 0 ? Money.ZERO : Money.ofUnits(sum).dividedBy(count));
+        result.put("count", count);
+        result.put("largestCategory", largestCategory);
         return result;
     }
 }
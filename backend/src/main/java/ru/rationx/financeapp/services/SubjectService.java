@@ -11,6 +11,7 @@ import ru.rationx.financeapp.models.transaction.TransactionType;
 import ru.rationx.financeapp.repository.SubjectRepository;
 
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -29,8 +30,16 @@ public class SubjectService {
                 .orElseThrow(() -> new DoNotFoundSubject("Субъект не найден: проверьте корректность заполняемых данных"));
     }
 
+    // Субъект по ИНН, если он уже есть (без исключения на промахе)
+    public Optional<Subject> findByInn(String inn) {
+        return subjectRepository.findByInn(inn);
+    }
 
-    // Получаем и перезаписываем текущий субъект или создаём новый
+    // Получаем и перезаписываем текущий субъект или создаём новый.
+    // Сначала select по ИНН: известный субъект обновляется через dirty checking (UPDATE — только если данные
+    // изменились). Upsert лишь на промахе — он берёт id из subject_seq даже при конфликте, и при каждом
+    // повторном ИНН sequence расходовался бы впустую. ON CONFLICT (inn) страхует от параллельного создания.
+    @Transactional
     public Subject getOrCreateSubject(
             String inn,
             String name,
@@ -39,36 +48,27 @@ public class SubjectService {
             String phone
 
     ){
-        try {
-            Subject subjectByINN = getSubjectByINN(inn.strip());
-            log.info("Получен субъект по ИНН: {}",inn);
-
-            subjectByINN.setName(name);
-            subjectByINN.setAddress(address);
-            subjectByINN.setRecipientPhone(phone);
-            subjectByINN.setPersonType(personType);
-
-            log.info("Данные перезаписаны, сохраняем, возвращаем...");
-
-            subjectRepository.save(subjectByINN);
-
-            return subjectByINN;
-        } catch (DoNotFoundSubject ex) {
-            log.info("Субъекта с таким ИНН: {} - нет, переходим к созданию. ", inn);
-            Subject newSubject = Subject.builder()
-                    .name(name)
-                    .inn(inn)
-                    .address(address)
-                    .recipientPhone(phone)
-                    .personType(personType)
-                    .build();
-
-            subjectRepository.save(newSubject);
-            log.info("Субъект с именем {} был успешно создан. ", name);
-
-            return newSubject;
+        String key = inn.strip();
+        Optional<Subject> existing = subjectRepository.findByInn(key);
+        if (existing.isPresent()) {
+            Subject subject = existing.get();
+            subject.setName(name);
+            subject.setPersonType(personType);
+            subject.setAddress(address);
+            subject.setRecipientPhone(phone);
+            return subject;
         }
 
+        Long id = subjectRepository.upsertByInn(
+                key,
+                name,
+                address,
+                phone,
+                personType == null ? null : personType.name());
+        log.info("Субъект с ИНН {} создан или обновлён (id = {})", key, id);
+
+        // Ссылка без лишнего select: данные уже в базе, для связи с транзакцией нужен только id
+        return subjectRepository.getReferenceById(id);
     }
 
     // Примитивный способ обновить субъекта
@@ -2,26 +2,47 @@ package ru.rationx.financeapp.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.rationx.financeapp.models.bank.Bank;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
 import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionFilterDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionStatusTransitionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionStatusTransitionResultDTO;
+import ru.rationx.financeapp.models.money.Money;
 import ru.rationx.financeapp.models.subject.Subject;
 import ru.rationx.financeapp.models.transaction.*;
 import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.repository.BankUpsertRepository;
 import ru.rationx.financeapp.repository.TransactionRepository;
+import ru.rationx.financeapp.repository.specification.TransactionSpecifications;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.rationx.financeapp.services.exception.NoPermStatusException;
+import ru.rationx.financeapp.services.exception.TransactionVersionConflictException;
 import ru.rationx.financeapp.services.mapper.TransactionMapper;
+import ru.rationx.financeapp.services.pagination.TransactionCursor;
+import ru.rationx.financeapp.services.pagination.TransactionPage;
+import ru.rationx.financeapp.services.report.ReportDataVersions;
 
 import java.math.BigDecimal;
-import java.security.Principal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.time.ZoneId;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,22 +56,60 @@ public class TransactionService {
     private final CategoryService categoryService;
     private final UserService userService;
     private final RegService regService;
+    private final DailyStatisticService dailyStatisticService;
+    private final ReportDataVersions reportDataVersions;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
 
     private final TransactionMapper transactionMapper;
 
-    //-----------------------ФИЛЬТРЫ-----------------------------------//
+    // Размер страницы по умолчанию и верхняя граница для постраничной выдачи
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Максимальный размер пакета для /api/transactions/batch
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    // Поля, которые можно передать в PATCH (имена — как в JSON TransactionDTO)
+    public static final Set<String> PATCH_FIELDS = Set.of(
+            "comment", "status", "category", "transactionType", "sum", "typeOperation", "version",
+            "name", "personType", "inn", "address", "phone", "nameBank", "bill", "rbill",
+            "nameRecipient", "personTypeRecipient", "innRecipient", "addressRecipient", "recipientPhoneRecipient",
+            "nameBankRecip", "billRecip", "rbillRecip"
+    );
 
-    //Найти все транзакции
-    public List<Transaction> getAll() {
-        return transactionRepository.findAll();
+    // Имена полей PATCH-документа для одной стороны операции (отправитель или получатель)
+    private record PartyFields(String inn, String name, String personType, String address, String phone,
+                               String nameBank, String bill, String rBill) {
     }
 
+    private static final PartyFields SENDER_FIELDS = new PartyFields(
+            "inn", "name", "personType", "address", "phone", "nameBank", "bill", "rbill");
+    private static final PartyFields RECIPIENT_FIELDS = new PartyFields(
+            "innRecipient", "nameRecipient", "personTypeRecipient", "addressRecipient", "recipientPhoneRecipient",
+            "nameBankRecip", "billRecip", "rbillRecip");
+
+    // Результат PATCH связанной сущности: какая она теперь и менялось ли что-то
+    private record Patched<T>(T value, boolean changed) {
+    }
+
+    // Поля, по которым разрешено сортировать результаты поиска
+    private static final Map<String, String> SEARCH_SORT_FIELDS = Map.of(
+            "dateTime", "dateTime",
+            "id", "id",
+            "status", "status",
+            "sum", "regTransaction.sum"
+    );
+
+    //-----------------------ФИЛЬТРЫ-----------------------------------//
+
     /**
-     * Получить все транзакции
+     * Получить все транзакции пользователя
      */
-    public List<Transaction> getAllTransactions() {
+    public List<Transaction> getAllTransactions(Long userId) {
         try {
-            return transactionRepository.findAll();
+            return transactionRepository.findAllByUserId(userId);
         } catch (Exception e) {
             log.error("Error while getting all transactions", e);
             return Collections.emptyList();
@@ -58,11 +117,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакцию по ID
+     * Получить транзакцию пользователя по ID (чужая транзакция не находится)
      */
-    public Transaction getTransactionById(Long id) {
+    public Transaction getTransactionById(Long id, Long userId) {
         try {
-            Optional<Transaction> transaction = transactionRepository.findById(id);
+            Optional<Transaction> transaction = transactionRepository.findByIdAndUserId(id, userId);
             return transaction.orElse(null);
         } catch (Exception e) {
             log.error("Error while getting transaction by id: " + id, e);
@@ -71,11 +130,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по статусу
+     * Получить транзакции пользователя по статусу
      */
-    public List<Transaction> getTransactionsByStatus(TransactionStatus status) {
+    public List<Transaction> getTransactionsByStatus(Long userId, TransactionStatus status) {
         try {
-            return transactionRepository.findByStatus(status);
+            return transactionRepository.findByUserIdAndStatus(userId, status);
         } catch (Exception e) {
             log.error("Error while getting transactions by status: " + status, e);
             return Collections.emptyList();
@@ -83,11 +142,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по типу
+     * Получить транзакции пользователя по типу
      */
-    public List<Transaction> getTransactionsByType(TransactionType type) {
+    public List<Transaction> getTransactionsByType(Long userId, TransactionType type) {
         try {
-            return transactionRepository.findByType(type);
+            return transactionRepository.findByUserIdAndType(userId, type);
         } catch (Exception e) {
             log.error("Error while getting transactions by type: " + type, e);
             return Collections.emptyList();
@@ -95,11 +154,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по категории
+     * Получить транзакции пользователя по категории
      */
-    public List<Transaction> getTransactionsByCategory(Long categoryId) {
+    public List<Transaction> getTransactionsByCategory(Long userId, Long categoryId) {
         try {
-            return transactionRepository.findByCategoryId(categoryId);
+            return transactionRepository.findByUserIdAndCategoryId(userId, categoryId);
         } catch (Exception e) {
             log.error("Error while getting transactions by category id: " + categoryId, e);
             return Collections.emptyList();
@@ -107,11 +166,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по ИНН получателя
+     * Получить транзакции пользователя по ИНН получателя
      */
-    public List<Transaction> getTransactionsByRecipientInn(String inn) {
+    public List<Transaction> getTransactionsByRecipientInn(Long userId, String inn) {
         try {
-            return transactionRepository.findByRecipientInn(inn);
+            return transactionRepository.findByUserIdAndRecipientInn(userId, inn);
         } catch (Exception e) {
             log.error("Error while getting transactions by recipient inn: " + inn, e);
             return Collections.emptyList();
@@ -119,11 +178,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по банку отправителя
+     * Получить транзакции пользователя по банку отправителя
      */
-    public List<Transaction> getTransactionsBySenderBank(String bank) {
+    public List<Transaction> getTransactionsBySenderBank(Long userId, String bank) {
         try {
-            return transactionRepository.findBySenderBank(bank);
+            return transactionRepository.findByUserIdAndSenderBank(userId, bank);
         } catch (Exception e) {
             log.error("Error while getting transactions by sender bank: " + bank, e);
             return Collections.emptyList();
@@ -131,11 +190,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по банку получателя
+     * Получить транзакции пользователя по банку получателя
      */
-    public List<Transaction> getTransactionsByRecipientBank(String bank) {
+    public List<Transaction> getTransactionsByRecipientBank(Long userId, String bank) {
         try {
-            return transactionRepository.findByRecipientBank(bank);
+            return transactionRepository.findByUserIdAndRecipientBank(userId, bank);
         } catch (Exception e) {
             log.error("Error while getting transactions by recipient bank: " + bank, e);
             return Collections.emptyList();
@@ -143,13 +202,13 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по диапазону дат
+     * Получить транзакции пользователя по диапазону дат
      */
-    public List<Transaction> getTransactionsByDateRange(LocalDate startDate, LocalDate endDate) {
+    public List<Transaction> getTransactionsByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
         try {
             LocalDateTime startDateTime = startDate.atStartOfDay();
             LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-            return transactionRepository.findByDateBetween(startDateTime, endDateTime);
+            return transactionRepository.findByUserIdAndDateBetween(userId, startDateTime, endDateTime);
         } catch (Exception e) {
             log.error("Error while getting transactions by date range: " + startDate + " - " + endDate, e);
             return Collections.emptyList();
@@ -157,11 +216,11 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по диапазону сумм
+     * Получить транзакции пользователя по диапазону сумм
      */
-    public List<Transaction> getTransactionsByAmountRange(BigDecimal minAmount, BigDecimal maxAmount) {
+    public List<Transaction> getTransactionsByAmountRange(Long userId, BigDecimal minAmount, BigDecimal maxAmount) {
         try {
-            return transactionRepository.findByAmountBetween(minAmount, maxAmount);
+            return transactionRepository.findByUserIdAndAmountBetween(userId, Money.of(minAmount), Money.of(maxAmount));
         } catch (Exception e) {
             log.error("Error while getting transactions by amount range: " + minAmount + " - " + maxAmount, e);
             return Collections.emptyList();
@@ -169,45 +228,45 @@ public class TransactionService {
     }
 
     /**
-     * Получить транзакции по диапазону дат и имени пользователя
+     * Получить транзакции пользователя за период (включительно), отсортированные по дате
      */
-    public List<Transaction> getTransactionsByDateRange(String username, Date startDate, Date endDate) {
-        try {
-            // Преобразуем Date в LocalDateTime для сравнения
-            LocalDateTime startDateTime = startDate.toInstant()
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDateTime();
-            
-            LocalDateTime endDateTime = endDate.toInstant()
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDateTime();
-            
-            // Сначала получаем все транзакции пользователя
-            User user = userService.getUser(username);
-            List<Transaction> userTransactions = getByUserId(user.getId());
-            
-            // Затем фильтруем по диапазону дат
-            return userTransactions.stream()
-                    .filter(tx -> {
-                        if (tx.getDateTime() == null) return false;
-                        
-                        // Проверяем вхождение в диапазон
-                        return !tx.getDateTime().isBefore(startDateTime) && !tx.getDateTime().isAfter(endDateTime);
-                    })
-                    .collect(Collectors.toList());
-            
-        } catch (Exception e) {
-            log.error("Error while getting transactions by date range for user {}: {} - {}", 
-                    username, startDate, endDate, e);
-            return Collections.emptyList();
+    public List<Transaction> getTransactionsByDateRange(Long userId, LocalDateTime start, LocalDateTime end) {
+        return transactionRepository.findByUserIdAndDateBetween(userId, start, end);
+    }
+
+    /**
+     * Поиск транзакций пользователя по любой комбинации фильтров.
+     * Фильтры, сортировка и страница уходят в базу одним запросом (плюс count для totalElements).
+     */
+    public Page<Transaction> search(Long userId, TransactionFilterDTO filter) {
+        String sortField = SEARCH_SORT_FIELDS.get(filter.getSort());
+        if (sortField == null) {
+            throw new IllegalArgumentException("Сортировка по полю '" + filter.getSort() + "' не поддерживается");
+        }
+
+        Sort.Direction direction = filter.getDirection() == null ? Sort.Direction.DESC
+                : Sort.Direction.fromOptionalString(filter.getDirection())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Направление сортировки '" + filter.getDirection() + "' не поддерживается: asc или desc"));
+        // id добавляем вторым ключом, чтобы порядок между страницами был стабильным (если сортируем не по id)
+        Sort sort = Sort.by(direction, sortField);
+        if (!"id".equals(sortField)) {
+            sort = sort.and(Sort.by(direction, "id"));
         }
+
+        int size = filter.getSize() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(filter.getSize(), MAX_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(Math.max(filter.getPage(), 0), size, sort);
+
+        return transactionRepository.findAll(
+                TransactionSpecifications.ownedBy(userId).and(TransactionSpecifications.matches(filter)),
+                pageRequest);
     }
 
     //-----------------------ДЕЙСТВИЯ С ТРАЗАКЦИЯМИ-----------------------------------//
 
     //Создать новую транзакцию
     @Transactional
-    public Transaction create(TransactionDTO transaction, Principal principal) {
+    public Transaction create(TransactionDTO transaction, Long userId) {
 
         // Получаем субъекта (отправителя)
 
@@ -231,7 +290,7 @@ public class TransactionService {
 
 
         log.info("Создаем банк для субъекта ");
-        Bank bank = bankService.create(
+        Bank bank = bankService.getOrCreateBank(
                 transaction.getNameBank(),
                 transaction.getRBill(),
                 transaction.getBill(),
@@ -239,7 +298,7 @@ public class TransactionService {
         );
 
 
-        Bank bankRecipient = bankService.create(
+        Bank bankRecipient = bankService.getOrCreateBank(
                 transaction.getNameBankRecip(),
                 transaction.getRBillRecip(),
                 transaction.getBillRecip(),
@@ -250,35 +309,197 @@ public class TransactionService {
         Category category = categoryService.findOrCreateCategory(transaction.getCategory(),
                 transaction.getTransactionType());
 
+        Transaction buildTransaction = buildTransaction(transaction, subject, subjectRecipient,
+                bank, bankRecipient, category, userService.getReference(userId));
+        regService.syncWith(buildTransaction);
 
+        transactionRepository.save(buildTransaction);
+        dailyStatisticService.add(dailyStatisticService.snapshot(buildTransaction));
+        reportDataVersions.bump(userId);
+        log.info("Транзакция успешно собрана без ошибок. ");
+        return buildTransaction;
 
-        Transaction buildTransaction = Transaction.builder()
+    }
+
+    // Собираем новую транзакцию из DTO и уже найденных/созданных связанных объектов
+    private Transaction buildTransaction(TransactionDTO transaction, Subject sender, Subject recipient,
+                                         Bank senderBank, Bank recipientBank, Category category, User user) {
+        return Transaction.builder()
                 .status(TransactionStatus.NEW)
                 .dateTime(LocalDateTime.now())
-                .subjectSender(subject)
-                .subjectGetter(subjectRecipient)
-                .senderBank(bank)
-                .recipientBank(bankRecipient)
+                .subjectSender(sender)
+                .subjectGetter(recipient)
+                .senderBank(senderBank)
+                .recipientBank(recipientBank)
                 .comment(transaction.getComment())
                 .regTransaction(RegTransaction.builder()
                         .transactionType(transaction.getTypeOperation())
                         .sum(transaction.getSum())
                         .build())
                 .category(category)
-                .user(userService.getUser(principal.getName()))
+                .user(user)
                 .build();
+    }
 
-        transactionRepository.save(buildTransaction);
-        log.info("Транзакция успешно собрана без ошибок. ");
-        return buildTransaction;
+    /**
+     * Пакетное создание транзакций.
+     * Каждый элемент проверяется аннотациями TransactionDTO (Validator); некорректные пропускаются
+     * и попадают в ответ с текстом ошибки. Остальные сохраняются одной транзакцией БД: субъекты и категории
+     * внутри пакета ищутся один раз на уникальный ключ, все счета разрешаются одним upsert, а вставки уходят
+     * в базу пачками (sequence-id + hibernate.jdbc.batch_size).
+     * Если база отклонила пачку (ограничения, длина полей), она откатывается и сохраняется двумя половинами —
+     * и так до одного элемента: в ответ попадает только он, остальные сохраняются.
+     * Вызывается вне транзакции: каждая пачка — своя транзакция БД.
+     */
+    public TransactionBatchResultDTO createBatch(List<TransactionDTO> items, Long userId) {
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("В одном пакете допускается не более " + MAX_BATCH_SIZE + " транзакций");
+        }
+
+        List<TransactionBatchResultDTO.ItemResult> results = new ArrayList<>(items.size());
+        List<Integer> validIndexes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            String error = validateForBatch(items.get(i));
+            if (error != null) {
+                results.add(TransactionBatchResultDTO.ItemResult.builder().index(i).error(error).build());
+            } else {
+                validIndexes.add(i);
+            }
+        }
+
+        saveBatch(items, validIndexes, userId, results);
+        results.sort(Comparator.comparingInt(TransactionBatchResultDTO.ItemResult::getIndex));
+
+        int created = (int) results.stream().filter(r -> r.getId() != null).count();
+        log.info("Пакет транзакций обработан: создано {}, с ошибками {}", created, items.size() - created);
+        return TransactionBatchResultDTO.builder()
+                .created(created)
+                .failed(items.size() - created)
+                .items(results)
+                .build();
+    }
+
+    // Сохраняет элементы пакета одной транзакцией; если база её отклонила — делит пополам и повторяет
+    private void saveBatch(List<TransactionDTO> items, List<Integer> indexes, Long userId,
+                           List<TransactionBatchResultDTO.ItemResult> results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        try {
+            List<Transaction> saved = transactionTemplate.execute(status -> saveChunk(items, indexes, userId));
+            for (int k = 0; k < saved.size(); k++) {
+                results.add(TransactionBatchResultDTO.ItemResult.builder()
+                        .index(indexes.get(k))
+                        .id(saved.get(k).getId())
+                        .build());
+            }
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            if (indexes.size() == 1) {
+                log.warn("Элемент пакета {} отклонён базой: {}", indexes.get(0), e.getMessage());
+                results.add(TransactionBatchResultDTO.ItemResult.builder()
+                        .index(indexes.get(0))
+                        .error("Транзакцию не удалось сохранить: данные не прошли ограничения базы")
+                        .build());
+                return;
+            }
+            log.info("Пачка из {} транзакций отклонена базой, сохраняем по половинам", indexes.size());
+            int middle = indexes.size() / 2;
+            saveBatch(items, indexes.subList(0, middle), userId, results);
+            saveBatch(items, indexes.subList(middle, indexes.size()), userId, results);
+        }
+    }
+
+    // Одна пачка в текущей транзакции: порядок сохранённых совпадает с indexes
+    private List<Transaction> saveChunk(List<TransactionDTO> items, List<Integer> indexes, Long userId) {
+        User user = userService.getReference(userId);
+
+        // Кэши на время пачки: ИНН -> субъект, название -> категория
+        Map<String, Subject> subjects = new HashMap<>();
+        Map<String, Category> categories = new HashMap<>();
+        // Счета всех элементов пачки: разрешаем их одним запросом после первого прохода
+        Map<String, BankUpsertRepository.BankRow> bankRows = new LinkedHashMap<>();
+
+        List<Subject[]> parties = new ArrayList<>(indexes.size());
+        List<Category> itemCategories = new ArrayList<>(indexes.size());
+
+        for (int i : indexes) {
+            TransactionDTO dto = items.get(i);
+
+            Subject sender = subjects.computeIfAbsent(dto.getInn().strip(), inn -> subjectService.getOrCreateSubject(
+                    inn, dto.getName(), dto.getPersonType(), dto.getAddress(), dto.getPhone()));
+            Subject recipient = subjects.computeIfAbsent(dto.getInnRecipient().strip(), inn -> subjectService.getOrCreateSubject(
+                    inn, dto.getNameRecipient(), dto.getPersonTypeRecipient(), dto.getAddressRecipient(),
+                    dto.getRecipientPhoneRecipient()));
+
+            bankRows.putIfAbsent(dto.getBill(), new BankUpsertRepository.BankRow(
+                    dto.getBill(), dto.getRBill(), dto.getNameBank(), sender.getId()));
+            bankRows.putIfAbsent(dto.getBillRecip(), new BankUpsertRepository.BankRow(
+                    dto.getBillRecip(), dto.getRBillRecip(), dto.getNameBankRecip(), recipient.getId()));
+
+            Category category = categories.computeIfAbsent(dto.getCategory().toLowerCase(), key ->
+                    categoryService.findOrCreateCategory(dto.getCategory(), dto.getTransactionType()));
+
+            parties.add(new Subject[]{sender, recipient});
+            itemCategories.add(category);
+        }
+
+        Map<String, Bank> banks = bankService.resolveBanks(bankRows.values());
+
+        List<Transaction> toSave = new ArrayList<>(indexes.size());
+        for (int k = 0; k < indexes.size(); k++) {
+            TransactionDTO dto = items.get(indexes.get(k));
+            Transaction built = buildTransaction(dto, parties.get(k)[0], parties.get(k)[1],
+                    banks.get(dto.getBill()), banks.get(dto.getBillRecip()), itemCategories.get(k), user);
+            regService.syncWith(built);
+            toSave.add(built);
+        }
+
+        transactionRepository.saveAll(toSave);
+        transactionRepository.flush();
+        dailyStatisticService.addAll(toSave.stream().map(dailyStatisticService::snapshot).toList());
+        reportDataVersions.bump(userId);
+        return toSave;
+    }
 
+    // Проверка элемента пакета по аннотациям TransactionDTO. Возвращает текст ошибки или null
+    private String validateForBatch(TransactionDTO dto) {
+        if (dto == null) {
+            return "Пустой элемент пакета";
+        }
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Проверка одного поля по аннотациям TransactionDTO (для PATCH)
+    private void validateField(String property, Object value) {
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validateValue(TransactionDTO.class, property, value);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Поле `" + property + "`: " + violations.iterator().next().getMessage());
+        }
     }
 
-    //Изменение транзакции
+    /**
+     * Изменение транзакции с оптимистической блокировкой.
+     *
+     * @param expectedVersion версия, которую видел клиент; null — без проверки. Если не совпала с текущей —
+     *                        TransactionVersionConflictException. Если транзакцию изменили параллельно уже после
+     *                        чтения — ObjectOptimisticLockingFailureException при коммите. В обоих случаях ничего
+     *                        не записывается, и клиент повторяет изменение по свежей версии.
+     */
     @Transactional
-    public Transaction update(Long id, TransactionDTO updatedData) {
-        // Получаем транзакцию по id
-        Transaction transaction = getById(id);
+    public Transaction update(Long id, Long userId, Long expectedVersion, TransactionDTO updatedData) {
+        // Получаем транзакцию пользователя по id
+        Transaction transaction = transactionRepository.findForUpdate(id, userId)
+                .orElseThrow(() -> new EntityNotFoundException("Транзакция с ID " + id + " не найдена"));
+        if (expectedVersion != null && !expectedVersion.equals(transaction.getVersion())) {
+            throw new TransactionVersionConflictException(id, expectedVersion, transaction.getVersion());
+        }
         if (!transaction.isEditable()) {
             log.error("Возникла ошибка при редактировании, отсутствие прав что бы отредактировать транзакцию. ");
             throw new NoPermStatusException("У вас нет разрешения что бы редактировать транзакцию с такими статусами: " +
@@ -356,6 +577,9 @@ public class TransactionService {
         // Обновление данных о регистрах накопления которые приход/расход
         regService.updateReg(transaction,updatedData.getSum(), updatedData.getTransactionType());
 
+        // Вклад в дневные агрегаты до смены статуса и категории (сумма и тип уже учтены в updateReg)
+        DailyStatisticService.Contribution beforeRefs = dailyStatisticService.snapshot(transaction);
+
         // Ставим статус (опасность налл)
         if (updatedData.getStatus() != null || !updatedData.getStatus().getDescription().isBlank()) {
             log.info("Подтягиваем статус транзакции `{}`...",updatedData.getStatus());
@@ -366,14 +590,225 @@ public class TransactionService {
         transaction.setSubjectSender(sub0);
         transaction.setSubjectGetter(sub1);
         transaction.setCategory(category);
+        regService.syncWith(transaction);
 
+        dailyStatisticService.replace(beforeRefs, dailyStatisticService.snapshot(transaction));
+        reportDataVersions.bump(transaction.getUser().getId());
 
         return transactionRepository.save(transaction);
     }
 
-    //Посмотреть по id транзакции
-    public Transaction getById(Long id) {
-        return transactionRepository.findById(id)
+    /**
+     * Частичное изменение транзакции (PATCH): меняются только переданные поля, и пишутся только строки,
+     * которые действительно изменились. Изменения делаются на загруженных сущностях и уходят в базу
+     * одним flush при коммите (dirty checking): правка комментария — один UPDATE transaction.
+     * Субъекты и счета меняются на месте или переключаются на другой ИНН/счёт, регистр и дневные
+     * агрегаты трогаются, только если изменились сумма, тип, категория или статус.
+     *
+     * @param values          значения полей (из PATCH-документа)
+     * @param fields          какие поля переданы в документе (PATCH_FIELDS); null у comment очищает комментарий
+     * @param expectedVersion версия, которую видел клиент; null — без проверки
+     */
+    @Transactional
+    public Transaction patch(Long id, Long userId, Long expectedVersion, TransactionDTO values, Set<String> fields) {
+        Set<String> unknown = new TreeSet<>(fields);
+        unknown.removeAll(PATCH_FIELDS);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Эти поля нельзя изменить: " + unknown);
+        }
+
+        Transaction transaction = getById(id, userId);
+        if (expectedVersion != null && !expectedVersion.equals(transaction.getVersion())) {
+            throw new TransactionVersionConflictException(id, expectedVersion, transaction.getVersion());
+        }
+        if (!transaction.isEditable()) {
+            throw new NoPermStatusException("У вас нет разрешения что бы редактировать транзакцию с такими статусами: " +
+                    "{подтвержденная, в обработке, отменена, платеж выполнен, платеж удален, возврат}");
+        }
+
+        DailyStatisticService.Contribution before = dailyStatisticService.snapshot(transaction);
+        RegTransaction reg = transaction.getRegTransaction();
+        // rowChanged — изменилась сама строка transaction (её версия вырастет при flush),
+        // changed — изменилось хоть что-то из того, что видно в транзакции
+        boolean rowChanged = false;
+        boolean changed = false;
+
+        if (fields.contains("comment") && !Objects.equals(values.getComment(), transaction.getComment())) {
+            transaction.setComment(values.getComment());
+            rowChanged = true;
+        }
+        if (fields.contains("status")) {
+            TransactionStatus status = required(values.getStatus(), "status");
+            if (status != transaction.getStatus()) {
+                transaction.setStatus(status);
+                rowChanged = true;
+            }
+        }
+
+        // Регистр накопления: сумма и тип операции
+        if (fields.contains("sum")) {
+            Money sum = required(values.getSum(), "sum");
+            validateField("sum", sum);
+            if (!sum.equals(reg.getSum())) {
+                reg.setSum(sum);
+                changed = true;
+            }
+        }
+        if (fields.contains("typeOperation")) {
+            TransactionType type = required(values.getTypeOperation(), "typeOperation");
+            if (type != reg.getTransactionType()) {
+                reg.setTransactionType(type);
+                changed = true;
+            }
+        }
+
+        // Категория: справочник в памяти, в базу — только за новой
+        if (fields.contains("category")) {
+            TransactionType categoryType = values.getTransactionType() != null
+                    ? values.getTransactionType() : reg.getTransactionType();
+            Category category = categoryService.findOrCreateCategory(required(values.getCategory(), "category"), categoryType);
+            if (transaction.getCategory() == null || !category.getId().equals(transaction.getCategory().getId())) {
+                transaction.setCategory(category);
+                rowChanged = true;
+            }
+        }
+
+        // Стороны операции: субъект и его счёт
+        Patched<Subject> sender = patchSubject(transaction.getSubjectSender(), fields, SENDER_FIELDS,
+                values.getInn(), values.getName(), values.getPersonType(), values.getAddress(), values.getPhone());
+        Patched<Subject> recipient = patchSubject(transaction.getSubjectGetter(), fields, RECIPIENT_FIELDS,
+                values.getInnRecipient(), values.getNameRecipient(), values.getPersonTypeRecipient(),
+                values.getAddressRecipient(), values.getRecipientPhoneRecipient());
+        Patched<Bank> senderBank = patchBank(transaction.getSenderBank(), sender.value(), fields, SENDER_FIELDS,
+                values.getNameBank(), values.getBill(), values.getRBill());
+        Patched<Bank> recipientBank = patchBank(transaction.getRecipientBank(), recipient.value(), fields, RECIPIENT_FIELDS,
+                values.getNameBankRecip(), values.getBillRecip(), values.getRBillRecip());
+        changed |= sender.changed() || recipient.changed() || senderBank.changed() || recipientBank.changed();
+
+        if (sender.value() != transaction.getSubjectSender()) {
+            transaction.setSubjectSender(sender.value());
+            rowChanged = true;
+        }
+        if (recipient.value() != transaction.getSubjectGetter()) {
+            transaction.setSubjectGetter(recipient.value());
+            rowChanged = true;
+        }
+        if (senderBank.value() != transaction.getSenderBank()) {
+            transaction.setSenderBank(senderBank.value());
+            rowChanged = true;
+        }
+        if (recipientBank.value() != transaction.getRecipientBank()) {
+            transaction.setRecipientBank(recipientBank.value());
+            rowChanged = true;
+        }
+        changed |= rowChanged;
+
+        if (!changed) {
+            log.info("PATCH транзакции {}: изменений нет", id);
+            return transaction;
+        }
+
+        regService.syncWith(transaction);
+        dailyStatisticService.replace(before, dailyStatisticService.snapshot(transaction));
+        if (!rowChanged) {
+            // Строка transaction не изменилась (правили сумму, субъекта или счёт) — версию всё равно поднимаем,
+            // чтобы ETag у клиентов устарел
+            entityManager.lock(transaction, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+        reportDataVersions.bump(userId);
+        return transaction;
+    }
+
+    // Субъект после PATCH: тот же (поля правятся на месте) или другой, если передан другой ИНН
+    private Patched<Subject> patchSubject(Subject current, Set<String> fields, PartyFields names, String inn, String name,
+                                          Subject.PersonType personType, String address, String phone) {
+        Subject target = current;
+        boolean changed = false;
+        if (fields.contains(names.inn())) {
+            String newInn = required(inn, names.inn()).strip();
+            validateField(names.inn(), newInn);
+            if (!newInn.equals(current.getInn())) {
+                Optional<Subject> existing = subjectService.findByInn(newInn);
+                if (existing.isEmpty()) {
+                    // Нового субъекта создаём сразу со всеми переданными полями
+                    return new Patched<>(subjectService.getOrCreateSubject(newInn,
+                            required(fields.contains(names.name()) ? name : null, names.name()),
+                            required(fields.contains(names.personType()) ? personType : null, names.personType()),
+                            fields.contains(names.address()) ? address : null,
+                            fields.contains(names.phone()) ? phone : null), true);
+                }
+                target = existing.get();
+                changed = true;
+            }
+        }
+        if (fields.contains(names.name()) && !required(name, names.name()).equals(target.getName())) {
+            target.setName(name);
+            changed = true;
+        }
+        if (fields.contains(names.personType()) && required(personType, names.personType()) != target.getPersonType()) {
+            target.setPersonType(personType);
+            changed = true;
+        }
+        if (fields.contains(names.address()) && !Objects.equals(address, target.getAddress())) {
+            target.setAddress(address);
+            changed = true;
+        }
+        if (fields.contains(names.phone()) && !Objects.equals(phone, target.getRecipientPhone())) {
+            target.setRecipientPhone(phone);
+            changed = true;
+        }
+        return new Patched<>(target, changed);
+    }
+
+    // Счёт после PATCH: тот же (правится на месте) или другой, если передан другой номер счёта
+    private Patched<Bank> patchBank(Bank current, Subject owner, Set<String> fields, PartyFields names,
+                                    String nameBank, String bill, String rBill) {
+        Bank target = current;
+        boolean changed = false;
+        if (fields.contains(names.bill())) {
+            String newBill = required(bill, names.bill());
+            if (newBill.isBlank()) {
+                throw new IllegalArgumentException("Поле `" + names.bill() + "` не может быть пустым");
+            }
+            if (current == null || !newBill.equals(current.getBill())) {
+                Optional<Bank> existing = bankService.findByBill(newBill);
+                if (existing.isEmpty()) {
+                    return new Patched<>(bankService.getOrCreateBank(
+                            fields.contains(names.nameBank()) ? nameBank : null,
+                            fields.contains(names.rBill()) ? rBill : null,
+                            newBill, owner), true);
+                }
+                target = existing.get();
+                changed = true;
+            }
+        }
+        if (target == null) {
+            if (fields.contains(names.nameBank()) || fields.contains(names.rBill())) {
+                throw new IllegalArgumentException("У транзакции нет счёта: передайте `" + names.bill() + "`");
+            }
+            return new Patched<>(null, false);
+        }
+        if (fields.contains(names.nameBank()) && !Objects.equals(nameBank, target.getNameBank())) {
+            target.setNameBank(nameBank);
+            changed = true;
+        }
+        if (fields.contains(names.rBill()) && !Objects.equals(rBill, target.getRbill())) {
+            target.setRbill(rBill);
+            changed = true;
+        }
+        return new Patched<>(target, changed);
+    }
+
+    private static <T> T required(T value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Поле `" + field + "` не может быть null");
+        }
+        return value;
+    }
+
+    //Посмотреть по id транзакции пользователя (чужая — как несуществующая)
+    public Transaction getById(Long id, Long userId) {
+        return transactionRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Транзакция с ID " + id + " не найдена"));
     }
 
@@ -382,11 +817,123 @@ public class TransactionService {
         return transactionRepository.findAllByUserId(id);
     }
 
+    /**
+     * Постраничная (keyset) выдача транзакций пользователя, новые сверху.
+     * Берём на одну строку больше, чем просили, — так узнаём, есть ли следующая страница,
+     * не делая отдельный count.
+     *
+     * @param cursor токен из предыдущего ответа (null — первая страница)
+     * @param size   размер страницы, ограничивается MAX_PAGE_SIZE
+     */
+    public TransactionPage getPageByUserId(Long userId, String cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findPageByUserIdAfter(userId, after.dateTime(), after.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> content = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Transaction last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.getDateTime(), last.getId()).encode();
+        }
+
+        return new TransactionPage(content, nextCursor, hasMore);
+    }
+
+    /**
+     * Массовая смена статуса транзакций пользователя — по списку id или по фильтру.
+     * Правила isEditable/isDeletable (Transaction.allowedSourcesFor) проверяет сама база:
+     * один UPDATE ... WHERE status IN (...) RETURNING id, в нём же version, регистр и дневные агрегаты.
+     * Для списка id в ответе — отклонённые id с причиной; по фильтру переводятся только подходящие по статусу.
+     */
+    @Transactional
+    public TransactionStatusTransitionResultDTO transitionStatus(Long userId, TransactionStatusTransitionDTO request) {
+        TransactionStatus target = request.getStatus();
+        if (target == null) {
+            throw new IllegalArgumentException("Не указан новый статус");
+        }
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (byIds == (request.getFilter() != null)) {
+            throw new IllegalArgumentException("Передайте либо список ids, либо filter");
+        }
+        Set<TransactionStatus> sources = Transaction.allowedSourcesFor(target);
+
+        List<Long> moved;
+        List<TransactionStatusTransitionResultDTO.Rejection> rejections = new ArrayList<>();
+        if (byIds) {
+            if (request.getIds().size() > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("За один запрос можно изменить не более " + MAX_BATCH_SIZE + " транзакций");
+            }
+            Set<Long> requested = new LinkedHashSet<>(request.getIds());
+            requested.remove(null);
+            moved = transactionRepository.transitionByIds(userId, requested, target, sources);
+
+            // Причины ищем одним select и только для тех, кого не перевели
+            requested.removeAll(moved);
+            Map<Long, TransactionStatus> statuses = transactionRepository.findStatuses(userId, requested);
+            for (Long id : requested) {
+                rejections.add(TransactionStatusTransitionResultDTO.Rejection.builder()
+                        .id(id)
+                        .error(rejectionReason(statuses.containsKey(id), statuses.get(id), target))
+                        .build());
+            }
+        } else {
+            if (isEmpty(request.getFilter())) {
+                throw new IllegalArgumentException("Фильтр пуст: укажите хотя бы одно условие");
+            }
+            moved = transactionRepository.transitionByFilter(userId, request.getFilter(), target, sources);
+        }
+
+        if (!moved.isEmpty()) {
+            reportDataVersions.bump(userId);
+        }
+        log.info("Массовая смена статуса на {}: переведено {}, отклонено {}", target, moved.size(), rejections.size());
+        return TransactionStatusTransitionResultDTO.builder()
+                .status(target)
+                .updated(moved.size())
+                .rejected(rejections.size())
+                .ids(moved)
+                .rejections(rejections)
+                .build();
+    }
+
+    private static String rejectionReason(boolean found, TransactionStatus current, TransactionStatus target) {
+        if (!found) {
+            return "Транзакция не найдена";
+        }
+        if (current == target) {
+            return "Транзакция уже в статусе «" + target.getDescription() + "»";
+        }
+        return "Переход из статуса «" + (current == null ? "не задан" : current.getDescription())
+                + "» в «" + target.getDescription() + "» запрещён";
+    }
+
+    // В фильтре нет ни одного условия отбора (сортировка и страница не в счёт)
+    private static boolean isEmpty(TransactionFilterDTO filter) {
+        return filter.getStatus() == null && filter.getType() == null && filter.getCategoryId() == null
+                && isBlank(filter.getSenderBank()) && isBlank(filter.getRecipientBank())
+                && isBlank(filter.getRecipientInn())
+                && filter.getStartDate() == null && filter.getEndDate() == null
+                && filter.getMinAmount() == null && filter.getMaxAmount() == null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
     //Удаление транзакции
     @Transactional
-    public void markAsDeleted(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Транзакция с ID " + id + " не найдена"));
+    public void markAsDeleted(Long id, Long userId) {
+        Transaction transaction = getById(id, userId);
         
         // Проверка возможности удаления
         if (!transaction.isDeletable()) {
@@ -394,8 +941,14 @@ public class TransactionService {
         }
         
         // Устанавливаем статус PAYMENT_DELETED вместо физического удаления
+        DailyStatisticService.Contribution before = dailyStatisticService.snapshot(transaction);
         transaction.setStatus(TransactionStatus.PAYMENT_DELETED);
+        regService.syncWith(transaction);
         transactionRepository.save(transaction);
+
+        // Удалённая транзакция из дневных агрегатов уходит
+        dailyStatisticService.subtract(before);
+        reportDataVersions.bump(transaction.getUser().getId());
     }
 
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package ru.rationx.financeapp.services;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.rationx.financeapp.models.user.User;
 import ru.rationx.financeapp.repository.UserRepository;
 
@@ -10,9 +13,46 @@ import ru.rationx.financeapp.repository.UserRepository;
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final AuthUserCache authUserCache;
 
     public User getUser(String s){
         return userRepository.findByUsername(s)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь по такому username не найден"));
     }
+
+    /**
+     * Ссылка на пользователя по id без запроса к user_table — для связей новых сущностей,
+     * когда id уже известен из токена.
+     */
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    /**
+     * Включить/отключить и заблокировать/разблокировать пользователя.
+     * Кэш аутентификации сбрасывается после коммита — следующий же запрос с токеном
+     * этого пользователя увидит новое состояние.
+     *
+     * @param enabled null — не менять
+     * @param locked  null — не менять
+     */
+    @Transactional
+    public User updateAccountState(String username, Boolean enabled, Boolean locked) {
+        User user = getUser(username);
+        if (enabled != null) {
+            user.setEnabled(enabled);
+        }
+        if (locked != null) {
+            user.setAccountNonLocked(!locked);
+        }
+        userRepository.save(user);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authUserCache.evict(username);
+            }
+        });
+        return user;
+    }
 }
@@ -0,0 +1,22 @@
+package ru.rationx.financeapp.services.exception;
+
+import lombok.Getter;
+
+/**
+ * Транзакцию пытаются изменить по устаревшей версии: её уже изменил кто-то другой.
+ * Клиент должен перечитать текущее состояние и повторить изменение.
+ */
+@Getter
+public class TransactionVersionConflictException extends RuntimeException {
+    private final Long transactionId;
+    private final Long expectedVersion;
+    private final Long currentVersion;
+
+    public TransactionVersionConflictException(Long transactionId, Long expectedVersion, Long currentVersion) {
+        super("Транзакция " + transactionId + " уже изменена: ожидалась версия " + expectedVersion
+                + ", текущая " + currentVersion);
+        this.transactionId = transactionId;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+}
@@ -0,0 +1,227 @@
+package ru.rationx.financeapp.services.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rationx.financeapp.models.money.Money;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Потоковая выгрузка всех транзакций пользователя (для сверки).
+ * Строки читаются из базы курсором (fetch size) и сразу пишутся в ответ —
+ * ни весь список сущностей, ни весь файл в памяти не держим.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV
+    }
+
+    private static final String EXPORT_SQL = """
+            SELECT t.id, t.date_time, t.status, t.comment,
+                   r.transaction_type, r.sum,
+                   c.name AS category,
+                   s.name AS sender_name, s.inn AS sender_inn,
+                   sb.name_bank AS sender_bank, sb.bill AS sender_bill,
+                   g.name AS recipient_name, g.inn AS recipient_inn,
+                   rb.name_bank AS recipient_bank, rb.bill AS recipient_bill
+            FROM transaction t
+                     LEFT JOIN reg_transaction r ON r.id = t.reg_transaction_id
+                     LEFT JOIN category c ON c.id = t.category_id
+                     LEFT JOIN subject s ON s.id = t.subject_id
+                     LEFT JOIN subject g ON g.id = t.subject_getter_id
+                     LEFT JOIN bank sb ON sb.id = t.sender_bank_id
+                     LEFT JOIN bank rb ON rb.id = t.recipient_bank_id
+            WHERE t.user_id = ?
+            ORDER BY t.date_time, t.id
+            """;
+
+    private static final String[] COLUMNS = {
+            "id", "dateTime", "status", "comment", "typeOperation", "sum", "category",
+            "senderName", "senderInn", "senderBank", "senderBill",
+            "recipientName", "recipientInn", "recipientBank", "recipientBill"
+    };
+
+    // Номер колонки суммы (с единицы): в базе она в минимальных единицах Money
+    private static final int SUM_COLUMN = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public TransactionExportService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${spring.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        // Драйвер Postgres читает курсором только внутри транзакции (autocommit = false)
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Пишет транзакции пользователя в поток в выбранном формате.
+     * Вызывается из StreamingResponseBody, поэтому работает вне потока запроса.
+     */
+    public void export(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        writer.start();
+
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, userId);
+            return ps;
+        }, new RowCallbackHandler() {
+            private int rows;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                try {
+                    writer.write(rs);
+                    // Отдаём клиенту каждую прочитанную пачку, не дожидаясь конца выборки
+                    if (++rows % fetchSize == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    // Клиент отключился — прерываем чтение курсора
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }));
+
+        writer.finish();
+        log.info("Экспорт транзакций пользователя {} в формате {} завершён", userId, format);
+    }
+
+    // Значение колонки; сумма переводится из минимальных единиц в десятичную запись
+    private static Object column(ResultSet rs, int index) throws SQLException {
+        if (index == SUM_COLUMN) {
+            long units = rs.getLong(index);
+            return rs.wasNull() ? null : Money.ofUnits(units);
+        }
+        return rs.getObject(index);
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // Одна JSON-строка на транзакцию
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = column(rs, i + 1);
+                json.writeFieldName(COLUMNS[i]);
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof Number number) {
+                    json.writeNumber(number.toString());
+                } else if (value instanceof Timestamp ts) {
+                    json.writeString(ts.toLocalDateTime().toString());
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+
+    // CSV с заголовком, разделитель — запятая
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer csv;
+
+        CsvRowWriter(OutputStream out) {
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void start() throws IOException {
+            csv.write(String.join(",", COLUMNS));
+            csv.write('\n');
+            csv.flush();
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                Object value = column(rs, i + 1);
+                if (value instanceof Timestamp ts) {
+                    value = ts.toLocalDateTime();
+                }
+                if (value != null) {
+                    csv.write(escape(value.toString()));
+                }
+            }
+            csv.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            csv.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            csv.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -2,20 +2,26 @@ package ru.rationx.financeapp.services.jwt;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import ru.rationx.financeapp.models.user.AuthUser;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -26,10 +32,28 @@ public class JwtService {
     @Value("${spring.jwt.secret}")
     private String secret;
 
+    // Сколько проверенных токенов держать в кэше
+    @Value("${spring.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
     // 24 часа в миллисекундах
     private final long EXPIRATION = 1000 * 60 * 60 * 24;
 
-    private Key getSignKey() {
+    // Ключ и парсер неизменяемы и потокобезопасны — создаём один раз
+    private Key signKey;
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signKey = buildSignKey();
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signKey)
+                .build();
+        verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
+    }
+
+    private Key buildSignKey() {
         // Убедимся, что ключ соответствует минимальным требованиям для HS256 (256 бит / 32 байта)
         byte[] keyBytes;
         
@@ -57,15 +81,44 @@ public class JwtService {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    // Claims с id пользователя и его ролями: по ним запрос аутентифицируется без чтения user_table
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
     /**
      * Генерирует JWT токен для пользователя
      */
     public String generateToken(UserDetails userDetails) {
         log.debug("Generating token for user: {}", userDetails.getUsername());
         Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ROLES, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof AuthUser authUser) {
+            claims.put(CLAIM_USER_ID, authUser.getId());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
+    /**
+     * Роли из подписанного токена. null — в токене ролей нет (выдан до их добавления)
+     */
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get(CLAIM_ROLES);
+        if (!(roles instanceof Collection<?> names)) {
+            return null;
+        }
+        return names.stream()
+                .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(name)))
+                .toList();
+    }
+
+    /**
+     * id пользователя из токена. null — в токене его нет
+     */
+    public Long extractUserId(Claims claims) {
+        Object id = claims.get(CLAIM_USER_ID);
+        return id instanceof Number number ? number.longValue() : null;
+    }
+
     /**
      * Создает JWT токен
      */
@@ -79,7 +132,7 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -106,15 +159,18 @@ public class JwtService {
     }
 
     /**
-     * Извлекает все claims из токена
+     * Извлекает все claims из токена.
+     * Подпись проверяется один раз на токен, дальше claims берутся из кэша до истечения токена.
      */
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSignKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(token, claims);
+            return claims;
         } catch (JwtException e) {
             log.error("Error parsing JWT claims: {}", e.getMessage());
             throw e;
@@ -126,32 +182,31 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            boolean isValid = username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-            log.debug("Token validation for user {}: {}", userDetails.getUsername(), isValid);
-            return isValid;
+            return isTokenValid(extractAllClaims(token), userDetails);
         } catch (JwtException e) {
             log.error("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Проверяет уже разобранный токен: тот же пользователь и срок не истёк
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        boolean isValid = userDetails.getUsername().equals(claims.getSubject()) && !isTokenExpired(claims);
+        log.debug("Token validation for user {}: {}", userDetails.getUsername(), isValid);
+        return isValid;
+    }
+
     /**
      * Проверяет, истек ли срок действия токена
      */
-    private boolean isTokenExpired(String token) {
-        final Date expiration = extractExpiration(token);
-        boolean isExpired = expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        boolean isExpired = expiration != null && expiration.before(new Date());
         if (isExpired) {
             log.debug("Token expired at: {}", expiration);
         }
         return isExpired;
     }
-
-    /**
-     * Извлекает дату истечения срока действия из токена
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
 }
@@ -0,0 +1,71 @@
+package ru.rationx.financeapp.services.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш уже проверенных токенов: повторный запрос с тем же токеном не проверяет подпись заново.
+ * Ключ — SHA-256 от строки токена (сами токены в памяти не храним), запись действует до exp токена.
+ * Размер ограничен, при переполнении вытесняются давно не использованные токены (LRU).
+ */
+class VerifiedTokenCache {
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries;
+
+    VerifiedTokenCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Claims проверенного токена или null, если токена нет в кэше или он уже истёк
+     */
+    Claims get(String token) {
+        String key = hash(token);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.claims();
+        }
+    }
+
+    // Запоминаем только токены со сроком действия — бессрочные каждый раз проверяются заново
+    void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        String key = hash(token);
+        synchronized (entries) {
+            entries.put(key, new Entry(claims, claims.getExpiration().getTime()));
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 есть в любой JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
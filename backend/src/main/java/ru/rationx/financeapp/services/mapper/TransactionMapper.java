@@ -10,6 +10,7 @@ import ru.rationx.financeapp.models.transaction.Transaction;
 public interface  TransactionMapper {
 
     @Mapping(target = "id",ignore = true)
+    @Mapping(target = "version",ignore = true)
     @Mapping(target = "user",ignore = true)
     @Mapping(target = "status",ignore = true)
     @Mapping(target = "senderBank",ignore = true)
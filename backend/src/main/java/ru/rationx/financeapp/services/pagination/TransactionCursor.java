@@ -0,0 +1,40 @@
+package ru.rationx.financeapp.services.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Курсор для постраничной (keyset) выдачи транзакций.
+ * Хранит позицию последней отданной строки — пару (dateTime, id).
+ * Клиенту отдаётся в виде непрозрачной строки (Base64), разбирать её на фронте не нужно.
+ */
+public record TransactionCursor(LocalDateTime dateTime, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирует курсор в непрозрачный токен
+     */
+    public String encode() {
+        String raw = dateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает токен, полученный от клиента.
+     * Если токен испорчен — бросает IllegalArgumentException.
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, idx)),
+                    Long.parseLong(raw.substring(idx + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор постраничной выдачи: " + token);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.rationx.financeapp.services.pagination;
+
+import ru.rationx.financeapp.models.transaction.Transaction;
+
+import java.util.List;
+
+/**
+ * Одна страница транзакций пользователя.
+ * nextCursor — токен для следующего запроса (null, если дальше ничего нет).
+ */
+public record TransactionPage(List<Transaction> content, String nextCursor, boolean hasMore) {
+}
@@ -0,0 +1,127 @@
+package ru.rationx.financeapp.services.report;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.services.StatisticService;
+import ru.rationx.financeapp.services.statistic.StatisticSummary;
+import ru.rationx.financeapp.utils.PdfGenerator;
+import ru.rationx.financeapp.utils.PdfGenerator.TransactionRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая генерация PDF-отчёта.
+ * Статистика берётся из дневных агрегатов, а транзакции за период читаются курсором
+ * (fetch size) и сразу выводятся в документ — ни список транзакций, ни файл целиком
+ * в памяти не держим, поэтому размер отчёта ограничен только временем генерации.
+ * <p>
+ * Агрегаты ведутся по дням, поэтому период отчёта — целые дни: от начала дня start до конца дня end,
+ * время внутри дня не учитывается. Так строки таблицы и итоги по дням считаются по одним и тем же
+ * транзакциям; удалённые (PAYMENT_DELETED) не входят ни туда, ни туда.
+ */
+@Slf4j
+@Service
+public class PdfReportService {
+
+    private static final String REPORT_SQL = """
+            SELECT t.id, t.date_time, r.transaction_type, r.sum, c.name AS category, t.comment
+            FROM transaction t
+                     JOIN reg_transaction r ON r.id = t.reg_transaction_id
+                     LEFT JOIN category c ON c.id = t.category_id
+            WHERE t.user_id = ? AND t.date_time >= ? AND t.date_time < ?
+              AND t.status <> 'PAYMENT_DELETED'
+            ORDER BY t.date_time, t.id
+            """;
+
+    private static final RowMapper<TransactionRow> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp dateTime = rs.getTimestamp("date_time");
+        return new TransactionRow(
+                rs.getLong("id"),
+                dateTime != null ? dateTime.toLocalDateTime() : null,
+                TransactionType.valueOf(rs.getString("transaction_type")),
+                Money.ofUnits(rs.getLong("sum")),
+                rs.getString("category"),
+                rs.getString("comment")
+        );
+    };
+
+    private final StatisticService statisticService;
+    private final PdfGenerator pdfGenerator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final int fetchSize;
+
+    public PdfReportService(StatisticService statisticService,
+                            PdfGenerator pdfGenerator,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${spring.export.fetch-size:500}") int fetchSize) {
+        this.statisticService = statisticService;
+        this.pdfGenerator = pdfGenerator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        // Драйвер Postgres читает курсором только внутри транзакции (autocommit = false).
+        // REPEATABLE READ — сводка и строки читаются из одного снимка базы, итоги сходятся с таблицей
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Пишет отчёт пользователя за дни с start.toLocalDate() по end.toLocalDate() включительно в поток.
+     * Вызывается из StreamingResponseBody, поэтому работает вне потока запроса.
+     */
+    public void write(Long userId, LocalDateTime start, LocalDateTime end, OutputStream out) throws IOException {
+        LocalDate firstDay = start.toLocalDate();
+        LocalDate lastDay = end.toLocalDate();
+
+        Date startDate = Date.from(start.atZone(ZoneId.systemDefault()).toInstant());
+        Date endDate = Date.from(end.atZone(ZoneId.systemDefault()).toInstant());
+
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                StatisticSummary summary = statisticService.summarize(userId, firstDay, lastDay);
+                try (Stream<TransactionRow> rows = jdbcTemplate.queryForStream(con -> {
+                    var ps = con.prepareStatement(REPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    ps.setLong(1, userId);
+                    ps.setTimestamp(2, Timestamp.valueOf(firstDay.atStartOfDay()));
+                    ps.setTimestamp(3, Timestamp.valueOf(lastDay.plusDays(1).atStartOfDay()));
+                    return ps;
+                }, ROW_MAPPER)) {
+                    pdfGenerator.writeFinancialReport(out,
+                            statisticService.generalStatistic(summary),
+                            statisticService.getByCategory(summary),
+                            statisticService.getPeriodStats(summary),
+                            rows.iterator(),
+                            startDate,
+                            endDate);
+                } catch (IOException e) {
+                    // Клиент отключился — прерываем чтение курсора
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("PDF отчёт пользователя {} за период {} - {} сформирован", userId, start, end);
+    }
+}
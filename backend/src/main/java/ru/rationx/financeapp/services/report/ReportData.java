@@ -0,0 +1,17 @@
+package ru.rationx.financeapp.services.report;
+
+import ru.rationx.financeapp.models.dto.statistic.StatisticDTO;
+import ru.rationx.financeapp.models.transaction.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Снимок данных для PDF-отчёта: всё, что нужно генератору, собрано заранее
+ * и больше не ходит в базу (связи транзакций загружены графом).
+ */
+public record ReportData(Map<String, Object> generalStats,
+                         Map<String, StatisticDTO> categoryStats,
+                         List<Map<String, Object>> periodStats,
+                         List<Transaction> transactions) {
+}
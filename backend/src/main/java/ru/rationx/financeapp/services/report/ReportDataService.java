@@ -0,0 +1,80 @@
+package ru.rationx.financeapp.services.report;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.rationx.financeapp.services.StatisticService;
+import ru.rationx.financeapp.services.TransactionService;
+import ru.rationx.financeapp.services.statistic.StatisticSummary;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.*;
+
+/**
+ * Сбор данных для PDF-отчёта.
+ * Независимые запросы (сводка статистики и транзакции за период) выполняются
+ * параллельно на виртуальных потоках, поэтому время сбора ≈ самый медленный запрос, а не сумма.
+ * Потоки живут только в рамках одного вызова: при ошибке, таймауте или прерывании
+ * запроса оставшиеся задачи отменяются.
+ */
+@Slf4j
+@Service
+public class ReportDataService {
+
+    private final StatisticService statisticService;
+    private final TransactionService transactionService;
+    private final Duration timeout;
+
+    public ReportDataService(StatisticService statisticService,
+                             TransactionService transactionService,
+                             @Value("${spring.report.timeout:30s}") Duration timeout) {
+        this.statisticService = statisticService;
+        this.transactionService = transactionService;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Собрать данные отчёта пользователя за период [start, end].
+     *
+     * @throws TimeoutException если данные не собраны за spring.report.timeout
+     */
+    public ReportData collect(Long userId, LocalDateTime start, LocalDateTime end)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        try {
+            // Итоги, категории и дни — одна сводка из двух сгруппированных запросов к агрегатам
+            Future<Object> summary = completion.submit(() ->
+                    statisticService.summarize(userId, start.toLocalDate(), end.toLocalDate()));
+            Future<Object> transactions = completion.submit(() ->
+                    transactionService.getTransactionsByDateRange(userId, start, end));
+
+            // Забираем результаты в порядке готовности: первая же ошибка прерывает сбор целиком
+            long deadline = System.nanoTime() + timeout.toNanos();
+            for (int i = 0; i < 2; i++) {
+                Future<Object> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("Данные для отчёта не собраны за " + timeout);
+                }
+                done.get();
+            }
+
+            StatisticSummary stats = (StatisticSummary) summary.resultNow();
+            return new ReportData(
+                    statisticService.generalStatistic(stats),
+                    statisticService.getByCategory(stats),
+                    statisticService.getPeriodStats(stats),
+                    cast(transactions.resultNow())
+            );
+        } finally {
+            // Если всё готово — no-op; иначе прерываем оставшиеся запросы и не ждём их
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+}
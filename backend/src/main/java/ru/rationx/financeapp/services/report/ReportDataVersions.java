@@ -0,0 +1,60 @@
+package ru.rationx.financeapp.services.report;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версия данных пользователя для кэша отчётов.
+ * Любое изменение транзакций пользователя меняет версию, и готовые отчёты по старой версии
+ * больше не переиспользуются. Версии живут в памяти, поэтому хранилище отчётов
+ * очищается при старте (см. ReportFileStore).
+ */
+@Component
+public class ReportDataVersions {
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Меняется при изменениях, затрагивающих всех пользователей (пересчёт агрегатов)
+    private final AtomicLong epoch = new AtomicLong();
+
+    public String current(Long userId) {
+        AtomicLong version = versions.get(userId);
+        return epoch.get() + "." + (version != null ? version.get() : 0);
+    }
+
+    /**
+     * Данные пользователя изменились.
+     * Версия меняется сразу и ещё раз после коммита: отчёт, собранный между ними
+     * (по данным до коммита), попадёт под промежуточную версию и больше не будет выдан.
+     */
+    public void bump(Long userId) {
+        increment(userId);
+        afterCommit(() -> increment(userId));
+    }
+
+    // Изменились данные всех пользователей
+    public void bumpAll() {
+        epoch.incrementAndGet();
+        afterCommit(epoch::incrementAndGet);
+    }
+
+    private void increment(Long userId) {
+        versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
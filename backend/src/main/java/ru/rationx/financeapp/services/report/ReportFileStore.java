@@ -0,0 +1,165 @@
+package ru.rationx.financeapp.services.report;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Готовые PDF-отчёты на локальном диске.
+ * Отчёт хранится spring.report.store.ttl, а при превышении spring.report.store.max-size
+ * первыми удаляются самые старые. Файл отдаётся клиенту потоком, без чтения в память целиком.
+ */
+@Slf4j
+@Component
+public class ReportFileStore {
+
+    // Сохранённый отчёт
+    public record StoredReport(String id, Path path, long size, Instant storedAt) {
+    }
+
+    private final Path dir;
+    private final Duration ttl;
+    private final long maxSize;
+
+    // В порядке сохранения: первые — самые старые
+    private final Map<String, StoredReport> reports = new LinkedHashMap<>();
+    private long totalSize;
+
+    public ReportFileStore(@Value("${spring.report.store.dir:${java.io.tmpdir}/rationx-reports}") Path dir,
+                           @Value("${spring.report.store.ttl:1h}") Duration ttl,
+                           @Value("${spring.report.store.max-size:1GB}") DataSize maxSize) {
+        this.dir = dir;
+        this.ttl = ttl;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    /**
+     * Версии данных (ReportDataVersions) хранятся в памяти, поэтому файлы прошлого запуска
+     * сопоставить с ними нельзя — удаляем
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(this::deleteQuietly);
+        }
+        log.info("Хранилище PDF отчётов: {} (ttl {}, максимум {} байт)", dir, ttl, maxSize);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    // Временный файл для генерации отчёта — в том же каталоге, чтобы перенос был атомарным
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(dir, "report-", ".tmp");
+    }
+
+    /**
+     * Переносит сгенерированный файл в хранилище под идентификатором отчёта
+     */
+    public synchronized StoredReport put(String id, Path tempFile) throws IOException {
+        Path target = dir.resolve(id + ".pdf");
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        StoredReport report = new StoredReport(id, target, Files.size(target), Instant.now());
+        remove(id);
+        reports.put(id, report);
+        totalSize += report.size();
+
+        evictOverSize();
+        return report;
+    }
+
+    // Отчёт, если он ещё хранится и не устарел
+    public synchronized Optional<StoredReport> get(String id) {
+        StoredReport report = reports.get(id);
+        if (report != null && isExpired(report, Instant.now())) {
+            remove(id);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(report);
+    }
+
+    public synchronized void remove(String id) {
+        StoredReport report = reports.remove(id);
+        if (report != null) {
+            totalSize -= report.size();
+            deleteQuietly(report.path());
+        }
+    }
+
+    /**
+     * Открывает файл отчёта для отдачи клиенту — до того, как отправлены заголовки ответа.
+     * Уже открытый файл дочитается, даже если хранилище удалит его во время отдачи (срок хранения, переполнение).
+     * @return пусто, если файл уже удалён
+     */
+    public Optional<FileChannel> open(StoredReport report) throws IOException {
+        try {
+            return Optional.of(FileChannel.open(report.path(), StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Пишет открытый файл отчёта в поток ответа кусками, не читая его в память целиком.
+     * Поток сервлета — не сокет, поэтому transferTo здесь копирует через буфер, а не в обход памяти приложения.
+     */
+    public static void copy(FileChannel file, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = 0;
+        long size = file.size();
+        while (position < size) {
+            position += file.transferTo(position, size - position, target);
+        }
+    }
+
+    // Удаляем устаревшие отчёты
+    @Scheduled(fixedDelayString = "${spring.report.store.cleanup-interval:60000}")
+    public synchronized void evictExpired() {
+        Instant now = Instant.now();
+        reports.values().stream()
+                .filter(report -> isExpired(report, now))
+                .map(StoredReport::id)
+                .toList()
+                .forEach(this::remove);
+    }
+
+    // Только что сохранённый отчёт не трогаем, даже если он один больше лимита
+    private void evictOverSize() {
+        while (totalSize > maxSize && reports.size() > 1) {
+            StoredReport oldest = reports.values().iterator().next();
+            log.info("Хранилище отчётов переполнено, удаляем отчёт {} ({} байт)", oldest.id(), oldest.size());
+            remove(oldest.id());
+        }
+    }
+
+    private boolean isExpired(StoredReport report, Instant now) {
+        return report.storedAt().plus(ttl).isBefore(now);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл отчёта {}: {}", path, e.getMessage());
+        }
+    }
+}
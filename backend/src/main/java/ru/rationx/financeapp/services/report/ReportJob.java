@@ -0,0 +1,57 @@
+package ru.rationx.financeapp.services.report;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Задание на генерацию PDF-отчёта.
+ * Одинаковые запросы (пользователь, период, версия данных) получают одно и то же задание.
+ */
+@Getter
+public class ReportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    // Ключ для объединения одинаковых запросов
+    public record Key(Long userId, LocalDateTime start, LocalDateTime end, String dataVersion) {
+    }
+
+    private final String id;
+    private final Key key;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ReportJob(String id, Key key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    public Long getUserId() {
+        return key.userId();
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void done() {
+        finishedAt = Instant.now();
+        status = Status.DONE;
+    }
+
+    void failed(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,145 @@
+package ru.rationx.financeapp.services.report;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Асинхронная генерация PDF-отчётов.
+ * Запрос только ставит задание в очередь, отчёт строится в ограниченном пуле воркеров
+ * и складывается в ReportFileStore, откуда его забирают по готовности.
+ * Одинаковые запросы, пока задание в работе или отчёт ещё хранится, получают то же задание.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private final PdfReportService pdfReportService;
+    private final ReportFileStore store;
+    private final ReportDataVersions versions;
+    private final ThreadPoolExecutor workers;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<ReportJob.Key, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(PdfReportService pdfReportService,
+                            ReportFileStore store,
+                            ReportDataVersions versions,
+                            @Value("${spring.report.jobs.workers:2}") int workers,
+                            @Value("${spring.report.jobs.queue-capacity:20}") int queueCapacity) {
+        this.pdfReportService = pdfReportService;
+        this.store = store;
+        this.versions = versions;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Поставить отчёт пользователя за период в очередь (или вернуть уже существующее задание)
+     *
+     * @throws RejectedExecutionException если очередь заданий заполнена
+     */
+    public ReportJob submit(Long userId, LocalDateTime start, LocalDateTime end) {
+        ReportJob.Key key = new ReportJob.Key(userId, start, end, versions.current(userId));
+        return jobsByKey.compute(key, (k, existing) -> {
+            if (existing != null && isReusable(existing)) {
+                log.debug("Отчёт {} уже есть, новое задание не создаём", existing.getId());
+                return existing;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), k);
+            workers.execute(() -> run(job));
+            jobs.put(job.getId(), job);
+            log.info("Задание на отчёт {} поставлено в очередь: пользователь {}, период {} - {}",
+                    job.getId(), userId, start, end);
+            return job;
+        });
+    }
+
+    // Задание пользователя (чужие задания не видны)
+    public Optional<ReportJob> get(String id, Long userId) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.getUserId().equals(userId));
+    }
+
+    // Готовый файл задания, если он ещё хранится
+    public Optional<ReportFileStore.StoredReport> getFile(ReportJob job) {
+        return job.getStatus() == ReportJob.Status.DONE ? store.get(job.getId()) : Optional.empty();
+    }
+
+    // Открыть файл отчёта для отдачи клиенту; пусто — файл уже удалён из хранилища
+    public Optional<FileChannel> open(ReportFileStore.StoredReport report) throws IOException {
+        return store.open(report);
+    }
+
+    private boolean isReusable(ReportJob job) {
+        return switch (job.getStatus()) {
+            case QUEUED, RUNNING -> true;
+            case DONE -> store.get(job.getId()).isPresent();
+            case FAILED -> false;
+        };
+    }
+
+    private void run(ReportJob job) {
+        job.running();
+        ReportJob.Key key = job.getKey();
+        Path tempFile = null;
+        try {
+            tempFile = store.newTempFile();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                pdfReportService.write(key.userId(), key.start(), key.end(), out);
+            }
+            store.put(job.getId(), tempFile);
+            job.done();
+            log.info("Отчёт {} готов", job.getId());
+        } catch (Exception e) {
+            log.error("Ошибка генерации отчёта {}", job.getId(), e);
+            // Подробности — только в лог: текст исключения может раскрыть пути и внутренние данные
+            job.failed("Не удалось создать PDF отчет, попробуйте позже");
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (Exception ignored) {
+                    // временный файл удалится при следующем старте
+                }
+            }
+        }
+    }
+
+    // Забываем завершённые задания старше срока хранения отчётов
+    @Scheduled(fixedDelayString = "${spring.report.store.cleanup-interval:60000}")
+    public void evictFinishedJobs() {
+        Instant threshold = Instant.now().minus(store.getTtl());
+        jobs.values().removeIf(job -> {
+            boolean expired = job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold);
+            if (expired) {
+                jobsByKey.remove(job.getKey(), job);
+                store.remove(job.getId());
+            }
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
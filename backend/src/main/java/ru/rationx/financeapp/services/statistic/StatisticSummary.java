@@ -0,0 +1,109 @@
+package ru.rationx.financeapp.services.statistic;
+
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Сводка статистики для нескольких представлений сразу: общие итоги, суммы по категориям
+ * и разбивка по дням внутри периода.
+ * Заполняется сгруппированными строками дневных агрегатов (см. StatisticService.summarize):
+ * итоги — по категории и типу за всё время, дни — только за [start, end].
+ * <p>
+ * Суммы — long в минимальных единицах Money (точно, без ошибок округления); дни — массивы по смещению
+ * от start, категории — накопитель long[] на категорию. Money создаются только при выдаче результата.
+ */
+public final class StatisticSummary {
+
+    // Обработчик одного дня периода (вызывается только для дней, по которым были данные)
+    @FunctionalInterface
+    public interface DayConsumer {
+        void accept(LocalDate date, Money income, Money expenses, long count);
+    }
+
+    private final LocalDate start;
+
+    private long totalIncome;
+    private long totalExpense;
+    private long transactionCount;
+
+    private final long[] dayIncome;
+    private final long[] dayExpense;
+    private final long[] dayCount;
+    private final boolean[] daySeen;
+
+    private final Map<Long, long[]> categorySums = new HashMap<>();
+
+    /**
+     * @param start первый день разбивки по дням
+     * @param end последний день разбивки (включительно)
+     */
+    public StatisticSummary(LocalDate start, LocalDate end) {
+        this.start = start;
+        int days = end.isBefore(start) ? 0 : Math.toIntExact(ChronoUnit.DAYS.between(start, end) + 1);
+        this.dayIncome = new long[days];
+        this.dayExpense = new long[days];
+        this.dayCount = new long[days];
+        this.daySeen = new boolean[days];
+    }
+
+    // Итог по категории и типу операции за всё время
+    public void addTotal(Long categoryId, TransactionType type, long sum, long count) {
+        if (type == TransactionType.DEBIT) {
+            totalIncome += sum;
+        } else {
+            totalExpense += sum;
+        }
+        transactionCount += count;
+        categorySums.computeIfAbsent(categoryId, id -> new long[1])[0] += sum;
+    }
+
+    // Итог за день по типу операции; дни вне периода пропускаются
+    public void addDay(LocalDate date, TransactionType type, long sum, long count) {
+        long offset = ChronoUnit.DAYS.between(start, date);
+        if (offset < 0 || offset >= daySeen.length) {
+            return;
+        }
+        int day = (int) offset;
+        if (type == TransactionType.DEBIT) {
+            dayIncome[day] += sum;
+        } else {
+            dayExpense[day] += sum;
+        }
+        dayCount[day] += count;
+        daySeen[day] = true;
+    }
+
+    public Money getTotalIncome() {
+        return Money.ofUnits(totalIncome);
+    }
+
+    public Money getTotalExpense() {
+        return Money.ofUnits(totalExpense);
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    // Сумма по каждой категории: id категории -> сумма
+    public Map<Long, Money> getCategorySums() {
+        Map<Long, Money> result = new HashMap<>(categorySums.size() * 2);
+        categorySums.forEach((id, sum) -> result.put(id, Money.ofUnits(sum[0])));
+        return result;
+    }
+
+    // Дни периода по порядку
+    public void forEachDay(DayConsumer consumer) {
+        for (int day = 0; day < daySeen.length; day++) {
+            if (daySeen[day]) {
+                consumer.accept(start.plusDays(day), Money.ofUnits(dayIncome[day]), Money.ofUnits(dayExpense[day]),
+                        dayCount[day]);
+            }
+        }
+    }
+}
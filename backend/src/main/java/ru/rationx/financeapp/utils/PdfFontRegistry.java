@@ -0,0 +1,69 @@
+package ru.rationx.financeapp.utils;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.BaseFont;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шрифты для PDF-отчётов.
+ * Файл шрифта (с кириллицей) читается из classpath один раз при старте,
+ * а готовые Font кэшируются по размеру, начертанию и цвету — генератор
+ * на каждую ячейку получает уже созданный объект.
+ * Font из реестра общие для всех отчётов: менять их (setColor, setStyle) нельзя.
+ */
+@Slf4j
+@Component
+public class PdfFontRegistry {
+
+    // Шрифт лежит в ресурсах приложения, от системных шрифтов не зависим
+    private static final String FONT_RESOURCE = "/fonts/arial.ttf";
+
+    private record FontKey(float size, boolean bold, int rgb) {
+    }
+
+    private final BaseFont baseFont;
+    private final Map<FontKey, Font> fonts = new ConcurrentHashMap<>();
+
+    public PdfFontRegistry() {
+        this.baseFont = load(FONT_RESOURCE);
+    }
+
+    /**
+     * Шрифт с поддержкой кириллицы
+     *
+     * @param color цвет текста, null — чёрный
+     */
+    public Font get(float size, boolean bold, BaseColor color) {
+        BaseColor textColor = color != null ? color : BaseColor.BLACK;
+        return fonts.computeIfAbsent(new FontKey(size, bold, textColor.getRGB()),
+                key -> new Font(baseFont, size, bold ? Font.BOLD : Font.NORMAL, textColor));
+    }
+
+    private static BaseFont load(String resource) {
+        try (InputStream fontStream = PdfFontRegistry.class.getResourceAsStream(resource)) {
+            if (fontStream == null) {
+                throw new IOException("Font file not found: " + resource);
+            }
+            BaseFont font = BaseFont.createFont(
+                    resource.substring(resource.lastIndexOf('/') + 1),
+                    BaseFont.IDENTITY_H,
+                    BaseFont.EMBEDDED,
+                    BaseFont.NOT_CACHED,
+                    fontStream.readAllBytes(),
+                    null
+            );
+            log.info("Шрифт для PDF загружен: {}", resource);
+            return font;
+        } catch (Exception e) {
+            // Без кириллического шрифта отчёт будет нечитаемым — не стартуем
+            throw new IllegalStateException("Не удалось загрузить шрифт для PDF: " + resource, e);
+        }
+    }
+}
@@ -2,30 +2,38 @@ package ru.rationx.financeapp.utils;
 
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.rationx.financeapp.models.dto.statistic.StatisticDTO;
+import ru.rationx.financeapp.models.money.Money;
 import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.transaction.TransactionType;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Утилитарный класс для генерации стилизованных PDF отчетов по финансовой статистике
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class PdfGenerator {
 
-    // Путь к шрифту, который будет использоваться в PDF (для поддержки кириллицы)
-    private static final String FONT_PATH = "backend/src/main/resources/fonts/arial.ttf";
+    // Шрифты с поддержкой кириллицы, загружены один раз при старте
+    private final PdfFontRegistry fonts;
 
     // Цвета для стилизации PDF
     private static final BaseColor PRIMARY_COLOR = new BaseColor(25, 118, 210); // Синий
@@ -40,6 +48,32 @@ public class PdfGenerator {
     private static final SimpleDateFormat DATE_TIME_FORMAT = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss");
     private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("#,##0.00");
 
+    // Сколько строк таблицы транзакций набирать перед выводом в документ
+    private static final int TABLE_CHUNK_ROWS = 500;
+
+    /**
+     * Строка таблицы транзакций в отчете — только то, что выводится в PDF
+     */
+    public record TransactionRow(Long id, LocalDateTime dateTime, TransactionType type, Money sum,
+                                 String category, String comment) {
+
+        // Транзакция без RegTransaction не имеет типа и суммы — в отчет такая строка не попадает
+        public static TransactionRow of(Transaction tx) {
+            if (tx.getRegTransaction() == null) {
+                log.warn("Транзакция с ID {} не имеет связанного RegTransaction", tx.getId());
+                return null;
+            }
+            return new TransactionRow(
+                    tx.getId(),
+                    tx.getDateTime(),
+                    tx.getRegTransaction().getTransactionType(),
+                    tx.getRegTransaction().getSum(),
+                    tx.getCategory() != null ? tx.getCategory().getName() : null,
+                    tx.getComment()
+            );
+        }
+    }
+
     /**
      * Генерирует PDF отчет на основе переданных статистических данных
      *
@@ -60,8 +94,37 @@ public class PdfGenerator {
             Date endDate) {
 
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4);
-            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            Iterator<TransactionRow> rows = transactions == null ? Collections.emptyIterator()
+                    : transactions.stream().map(TransactionRow::of).filter(Objects::nonNull).iterator();
+            writeFinancialReport(outputStream, generalStats, categoryStats, periodStats, rows, startDate, endDate);
+            return outputStream.toByteArray();
+        } catch (Exception e) {
+            log.error("Ошибка при создании PDF отчета", e);
+            throw new RuntimeException("Не удалось создать PDF отчет: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Пишет PDF отчет сразу в поток. Транзакции читаются из итератора по одной
+     * (например, из курсора базы) и выводятся в документ пачками по TABLE_CHUNK_ROWS строк,
+     * поэтому память не зависит от размера отчета, а готовые страницы уходят клиенту сразу.
+     *
+     * @param out          Поток, куда пишется документ (не закрывается)
+     * @param transactions Строки таблицы транзакций в порядке вывода
+     */
+    public void writeFinancialReport(
+            OutputStream out,
+            Map<String, Object> generalStats,
+            Map<String, StatisticDTO> categoryStats,
+            java.util.List<Map<String, Object>> periodStats,
+            Iterator<TransactionRow> transactions,
+            Date startDate,
+            Date endDate) throws IOException {
+
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
 
             // Добавляем номера страниц и другие метаданные
             writer.setPageEvent(new PdfPageEventHelper() {
@@ -89,13 +152,11 @@ public class PdfGenerator {
             addGeneralStatistics(document, generalStats);
 
             // Список транзакций
-            addTransactionList(document, transactions);
+            addTransactionList(document, writer, transactions);
 
             document.close();
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            log.error("Ошибка при создании PDF отчета", e);
-            throw new RuntimeException("Не удалось создать PDF отчет: " + e.getMessage(), e);
+        } catch (DocumentException e) {
+            throw new IOException("Не удалось создать PDF отчет: " + e.getMessage(), e);
         }
     }
 
@@ -309,7 +370,7 @@ public class PdfGenerator {
         if (categoryStats != null && !categoryStats.isEmpty()) {
             // Сортируем категории по сумме (по убыванию) для лучшего представления
             java.util.List<Map.Entry<String, StatisticDTO>> entries = new ArrayList<>(categoryStats.entrySet());
-            entries.sort((e1, e2) -> Double.compare(e2.getValue().getSum(), e1.getValue().getSum()));
+            entries.sort((e1, e2) -> e2.getValue().getSum().compareTo(e1.getValue().getSum()));
 
             // Добавляем строки в таблицу
             int rowNum = 0;
@@ -317,7 +378,7 @@ public class PdfGenerator {
                 StatisticDTO stat = entry.getValue();
                 String categoryName = entry.getKey();
                 String type = getTransactionTypeText(stat.getType());
-                double amount = stat.getSum();
+                Money amount = stat.getSum();
 
                 // Чередуем цвета строк для улучшения читаемости
                 BaseColor rowColor = (rowNum % 2 == 0) ? BaseColor.WHITE : LIGHT_GRAY;
@@ -389,6 +450,12 @@ public class PdfGenerator {
         // Добавляем строки с данными
         if (periodStats != null && !periodStats.isEmpty()) {
             int rowNum = 0;
+
+            CellStyle[] textStyle = rowStyles(getBaseFont(10, false), 5, Element.ALIGN_LEFT);
+            CellStyle[] incomeStyle = rowStyles(getBaseFont(10, false, INCOME_COLOR), 5, Element.ALIGN_RIGHT);
+            CellStyle[] expenseStyle = rowStyles(getBaseFont(10, false, EXPENSE_COLOR), 5, Element.ALIGN_RIGHT);
+            CellStyle[] countStyle = rowStyles(getBaseFont(10, false), 5, Element.ALIGN_CENTER);
+
             for (Map<String, Object> period : periodStats) {
                 String periodDate = "Н/Д";
                 try {
@@ -408,39 +475,13 @@ public class PdfGenerator {
                 double balance = ((Number) period.get("income")).doubleValue() - ((Number) period.get("expenses")).doubleValue();
                 int count = period.containsKey("transactionCount") ? ((Number) period.get("transactionCount")).intValue() : 0;
 
-                // Чередуем цвета строк для улучшения читаемости
-                BaseColor rowColor = (rowNum % 2 == 0) ? BaseColor.WHITE : LIGHT_GRAY;
-
-                // Добавляем строку в таблицу
-                PdfPCell periodCell = new PdfPCell(new Phrase(periodDate, getBaseFont(10, false)));
-                periodCell.setBackgroundColor(rowColor);
-                periodCell.setPadding(5);
-                table.addCell(periodCell);
-
-                PdfPCell incomeCell = new PdfPCell(new Phrase(formatCurrency(income), getBaseFont(10, false, INCOME_COLOR)));
-                incomeCell.setBackgroundColor(rowColor);
-                incomeCell.setPadding(5);
-                incomeCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                table.addCell(incomeCell);
-
-                PdfPCell expensesCell = new PdfPCell(new Phrase(formatCurrency(expenses), getBaseFont(10, false, EXPENSE_COLOR)));
-                expensesCell.setBackgroundColor(rowColor);
-                expensesCell.setPadding(5);
-                expensesCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                table.addCell(expensesCell);
-
-                PdfPCell balanceCell = new PdfPCell(new Phrase(formatCurrency(balance),
-                        getBaseFont(10, false, balance >= 0 ? INCOME_COLOR : EXPENSE_COLOR)));
-                balanceCell.setBackgroundColor(rowColor);
-                balanceCell.setPadding(5);
-                balanceCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                table.addCell(balanceCell);
-
-                PdfPCell countCell = new PdfPCell(new Phrase(String.valueOf(count), getBaseFont(10, false)));
-                countCell.setBackgroundColor(rowColor);
-                countCell.setPadding(5);
-                countCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(countCell);
+                // Добавляем строку в таблицу, чередуя цвета строк
+                int row = rowNum % 2;
+                table.addCell(textStyle[row].cell(periodDate));
+                table.addCell(incomeStyle[row].cell(formatCurrency(income)));
+                table.addCell(expenseStyle[row].cell(formatCurrency(expenses)));
+                table.addCell((balance >= 0 ? incomeStyle : expenseStyle)[row].cell(formatCurrency(balance)));
+                table.addCell(countStyle[row].cell(String.valueOf(count)));
 
                 rowNum++;
             }
@@ -457,8 +498,10 @@ public class PdfGenerator {
 
     /**
      * Добавляет список транзакций с улучшенным форматированием
+     * (package-private: таблицу отдельно замеряет PdfGeneratorBenchmark)
      */
-    private void addTransactionList(Document document, java.util.List<Transaction> transactions) throws DocumentException {
+    void addTransactionList(Document document, PdfWriter writer, Iterator<TransactionRow> transactions)
+            throws DocumentException, IOException {
         // Добавляем разрыв страницы
         document.newPage();
 
@@ -496,6 +539,9 @@ public class PdfGenerator {
         table.setWidthPercentage(100);
         table.setSpacingBefore(5f);
         table.setSpacingAfter(15f);
+        // Таблица выводится частями: шапка повторяется на каждой странице
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
         // Шапка таблицы
         addTableHeader(table, new String[]{
@@ -508,69 +554,47 @@ public class PdfGenerator {
         });
 
         // Добавляем строки с данными
-        if (transactions != null && !transactions.isEmpty()) {
+        if (transactions != null && transactions.hasNext()) {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
             int rowNum = 0;
 
-            for (Transaction tx : transactions) {
-                // Проверяем наличие всех необходимых данных в транзакции
-                if (tx.getRegTransaction() == null) {
-                    log.warn("Транзакция с ID {} не имеет связанного RegTransaction", tx.getId());
-                    continue;
-                }
+            // Стили ячеек готовим один раз на таблицу, а не на каждую ячейку
+            CellStyle[] idStyle = rowStyles(getBaseFont(10, false), 5, Element.ALIGN_CENTER);
+            CellStyle[] textStyle = rowStyles(getBaseFont(10, false), 5, Element.ALIGN_LEFT);
+            CellStyle[] incomeStyle = rowStyles(getBaseFont(10, false, INCOME_COLOR), 5, Element.ALIGN_LEFT);
+            CellStyle[] expenseStyle = rowStyles(getBaseFont(10, false, EXPENSE_COLOR), 5, Element.ALIGN_LEFT);
+            CellStyle[] incomeAmountStyle = rowStyles(getBaseFont(10, false, INCOME_COLOR), 5, Element.ALIGN_RIGHT);
+            CellStyle[] expenseAmountStyle = rowStyles(getBaseFont(10, false, EXPENSE_COLOR), 5, Element.ALIGN_RIGHT);
+
+            while (transactions.hasNext()) {
+                TransactionRow tx = transactions.next();
 
                 // Получаем данные о транзакции
-                String date = tx.getDateTime() != null ?
-                        tx.getDateTime().format(formatter) : "Н/Д";
+                String date = tx.dateTime() != null ?
+                        tx.dateTime().format(formatter) : "Н/Д";
 
-                String typeCode = tx.getRegTransaction().getTransactionType().toString();
+                String typeCode = tx.type().toString();
                 String type = getTransactionTypeText(typeCode);
-                String category = tx.getCategory() != null ? tx.getCategory().getName() : "Без категории";
-                double amount = tx.getRegTransaction().getSum();
+                String category = tx.category() != null ? tx.category() : "Без категории";
 
                 // Чередуем цвета строк для улучшения читаемости
-                BaseColor rowColor = (rowNum % 2 == 0) ? BaseColor.WHITE : LIGHT_GRAY;
-                BaseColor textColor = "CREDIT".equals(typeCode) ? EXPENSE_COLOR : INCOME_COLOR;
-
-                // ID
-                PdfPCell idCell = new PdfPCell(new Phrase(String.valueOf(tx.getId()), getBaseFont(10, false)));
-                idCell.setBackgroundColor(rowColor);
-                idCell.setPadding(5);
-                idCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(idCell);
-
-                // Дата
-                PdfPCell dateCell = new PdfPCell(new Phrase(date, getBaseFont(10, false)));
-                dateCell.setBackgroundColor(rowColor);
-                dateCell.setPadding(5);
-                table.addCell(dateCell);
-
-                // Тип операции
-                PdfPCell typeCell = new PdfPCell(new Phrase(type, getBaseFont(10, false, textColor)));
-                typeCell.setBackgroundColor(rowColor);
-                typeCell.setPadding(5);
-                table.addCell(typeCell);
-
-                // Сумма
-                PdfPCell amountCell = new PdfPCell(new Phrase(formatCurrency(amount), getBaseFont(10, false, textColor)));
-                amountCell.setBackgroundColor(rowColor);
-                amountCell.setPadding(5);
-                amountCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                table.addCell(amountCell);
-
-                // Категория
-                PdfPCell categoryCell = new PdfPCell(new Phrase(category, getBaseFont(10, false)));
-                categoryCell.setBackgroundColor(rowColor);
-                categoryCell.setPadding(5);
-                table.addCell(categoryCell);
-
-                // Комментарий
-                PdfPCell commentCell = new PdfPCell(new Phrase(tx.getComment() != null ? tx.getComment() : "", getBaseFont(10, false)));
-                commentCell.setBackgroundColor(rowColor);
-                commentCell.setPadding(5);
-                table.addCell(commentCell);
+                int row = rowNum % 2;
+                boolean expense = "CREDIT".equals(typeCode);
+
+                table.addCell(idStyle[row].cell(String.valueOf(tx.id())));
+                table.addCell(textStyle[row].cell(date));
+                table.addCell((expense ? expenseStyle : incomeStyle)[row].cell(type));
+                table.addCell((expense ? expenseAmountStyle : incomeAmountStyle)[row].cell(formatCurrency(tx.sum())));
+                table.addCell(textStyle[row].cell(category));
+                table.addCell(textStyle[row].cell(tx.comment() != null ? tx.comment() : ""));
 
                 rowNum++;
+
+                // Выводим накопленные строки в документ: они освобождаются, готовые страницы уходят в поток
+                if (rowNum % TABLE_CHUNK_ROWS == 0) {
+                    document.add(table);
+                    writer.flush();
+                }
             }
         } else {
             PdfPCell cell = new PdfPCell(new Phrase("Нет транзакций за выбранный период", getBaseFont(10, true)));
@@ -581,6 +605,7 @@ public class PdfGenerator {
             table.addCell(cell);
         }
 
+        table.setComplete(true);
         document.add(table);
 
         // Добавляем футер с пояснением и датой генерации
@@ -635,21 +660,26 @@ public class PdfGenerator {
     /**
      * Форматирует числовое значение как валюту с двумя знаками после запятой
      */
-    private String formatCurrency(Double amount) {
+    private String formatCurrency(Number amount) {
         if (amount == null) {
             return "0.00 ₽";
         }
-        return String.format("%,.2f ₽", amount);
+        return String.format("%,.2f ₽", decimal(amount));
     }
 
     /**
      * Форматирует числовое значение как валюту без копеек, для больших сумм
      */
-    private String formatCurrencyShort(Double amount) {
+    private String formatCurrencyShort(Number amount) {
         if (amount == null) {
             return "0 ₽";
         }
-        return String.format("%,.0f ₽", amount);
+        return String.format("%,.0f ₽", decimal(amount));
+    }
+
+    // Money форматируем точно (через BigDecimal), остальные числа — как double
+    private static Object decimal(Number amount) {
+        return amount instanceof Money money ? money.toBigDecimal() : amount.doubleValue();
     }
 
     /**
@@ -669,61 +699,33 @@ public class PdfGenerator {
     }
 
     /**
-     * Возвращает шрифт с поддержкой кириллицы и указанным цветом
+     * Возвращает шрифт с поддержкой кириллицы и указанным цветом (из реестра, без повторной загрузки)
      */
     private Font getBaseFont(int size, boolean bold, BaseColor color) {
-        try {
-            // Load font as a resource from classpath
-            String fontPath = "/fonts/arial.ttf"; // Note the leading slash
-            InputStream fontStream = getClass().getResourceAsStream(fontPath);
-
-            if (fontStream == null) {
-                throw new IOException("Font file not found: " + fontPath);
-            }
-
-            // Create base font with proper encoding
-            BaseFont baseFont = BaseFont.createFont(
-                    "arial.ttf",
-                    BaseFont.IDENTITY_H,
-                    BaseFont.EMBEDDED,
-                    BaseFont.CACHED,
-                    fontStream.readAllBytes(),
-                    null
-            );
-            fontStream.close();
-
-            Font font = new Font(baseFont, size);
-
-            if (bold) {
-                font.setStyle(Font.BOLD);
-            }
+        return fonts.get(size, bold, color);
+    }
 
-            if (color != null) {
-                font.setColor(color);
-            }
+    /**
+     * Стили ячейки для белой [0] и серой [1] строки таблицы
+     */
+    private static CellStyle[] rowStyles(Font font, float padding, int alignment) {
+        return new CellStyle[]{
+                new CellStyle(font, BaseColor.WHITE, padding, alignment),
+                new CellStyle(font, LIGHT_GRAY, padding, alignment)
+        };
+    }
 
-            return font;
-        } catch (Exception e) {
-            log.error("Ошибка при загрузке шрифта", e);
-            // Fallback to a font that supports Cyrillic
-            try {
-                BaseFont baseFont = BaseFont.createFont(
-                        "c:/windows/fonts/arial.ttf",  // Try Windows path
-                        BaseFont.IDENTITY_H,
-                        BaseFont.EMBEDDED
-                );
-                Font font = new Font(baseFont, size);
-                if (bold) font.setStyle(Font.BOLD);
-                if (color != null) font.setColor(color);
-                return font;
-            } catch (Exception ex) {
-                log.error("Ошибка при загрузке fallback шрифта", ex);
-                // Ultimate fallback - may not support Cyrillic
-                Font font = new Font(Font.FontFamily.HELVETICA, size);
-                if (bold) font.setStyle(Font.BOLD);
-                if (color != null) font.setColor(color);
-                return font;
-            }
+    /**
+     * Подготовленный стиль ячейки: шрифт, фон, отступ и выравнивание выбираются
+     * один раз на таблицу, для каждой ячейки остаётся только текст
+     */
+    private record CellStyle(Font font, BaseColor background, float padding, int alignment) {
+        PdfPCell cell(String text) {
+            PdfPCell cell = new PdfPCell(new Phrase(text, font));
+            cell.setBackgroundColor(background);
+            cell.setPadding(padding);
+            cell.setHorizontalAlignment(alignment);
+            return cell;
         }
     }
 }
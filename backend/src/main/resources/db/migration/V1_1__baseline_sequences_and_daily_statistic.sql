@@ -0,0 +1,25 @@
+-- База, созданная до миграций (baseline, версия 1), не содержит того, что V1 объявляет сверх прежних сущностей:
+-- транзакции, регистр, счета, субъекты и категории получали id через IDENTITY (последовательностей нет),
+-- а дневных агрегатов ещё не было. V2 подтягивает последовательности, V4 пересчитывает daily_statistic —
+-- поэтому создаём их здесь, до V2. На новой базе всё уже создано V1, и миграция ничего не меняет.
+
+CREATE SEQUENCE IF NOT EXISTS user_table_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS role_user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS subject_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bank_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS reg_transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS daily_statistic_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS daily_statistic
+(
+    id               BIGINT           NOT NULL PRIMARY KEY,
+    user_id          BIGINT           NOT NULL,
+    stat_date        DATE             NOT NULL,
+    category_id      BIGINT           NOT NULL,
+    transaction_type VARCHAR(255)     NOT NULL,
+    sum              DOUBLE PRECISION NOT NULL,
+    count            BIGINT           NOT NULL,
+    CONSTRAINT uk_daily_statistic_key UNIQUE (user_id, stat_date, category_id, transaction_type)
+);
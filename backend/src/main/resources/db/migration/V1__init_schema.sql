@@ -0,0 +1,98 @@
+-- Исходная схема: то, что раньше создавал hibernate ddl-auto=update по сущностям.
+-- На уже существующей базе эта миграция не выполняется (baseline-on-migrate, версия 1).
+
+CREATE SEQUENCE IF NOT EXISTS user_table_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS role_user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS subject_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bank_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS reg_transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS daily_statistic_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE user_table
+(
+    id                      BIGINT       NOT NULL PRIMARY KEY,
+    username                VARCHAR(255) UNIQUE,
+    password                VARCHAR(255),
+    enabled                 BOOLEAN      NOT NULL,
+    account_non_expired     BOOLEAN      NOT NULL,
+    credentials_non_expired BOOLEAN      NOT NULL,
+    account_non_locked      BOOLEAN      NOT NULL
+);
+
+CREATE TABLE role_user
+(
+    id        BIGINT NOT NULL PRIMARY KEY,
+    name_role VARCHAR(255) UNIQUE
+);
+
+CREATE TABLE m2m_role_table
+(
+    user_id  BIGINT NOT NULL REFERENCES user_table (id),
+    roles_id BIGINT NOT NULL REFERENCES role_user (id),
+    PRIMARY KEY (user_id, roles_id)
+);
+
+CREATE TABLE subject
+(
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    name            VARCHAR(255),
+    inn             VARCHAR(255) UNIQUE,
+    address         VARCHAR(255),
+    recipient_phone VARCHAR(255),
+    person_type     VARCHAR(255)
+);
+
+CREATE TABLE bank
+(
+    id         BIGINT NOT NULL PRIMARY KEY,
+    name_bank  VARCHAR(255),
+    bill       VARCHAR(255) UNIQUE,
+    rbill      VARCHAR(255) UNIQUE,
+    subject_id BIGINT REFERENCES subject (id)
+);
+
+CREATE TABLE category
+(
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL UNIQUE,
+    applicable_type VARCHAR(255)
+);
+
+CREATE TABLE reg_transaction
+(
+    id               BIGINT           NOT NULL PRIMARY KEY,
+    transaction_type VARCHAR(255)     NOT NULL,
+    sum              DOUBLE PRECISION NOT NULL,
+    date             DATE
+);
+
+CREATE TABLE transaction
+(
+    id                 BIGINT    NOT NULL PRIMARY KEY,
+    status             VARCHAR(255),
+    sender_bank_id     BIGINT REFERENCES bank (id),
+    recipient_bank_id  BIGINT REFERENCES bank (id),
+    date_time          TIMESTAMP(6),
+    comment            VARCHAR(255),
+    category_id        BIGINT REFERENCES category (id),
+    reg_transaction_id BIGINT UNIQUE REFERENCES reg_transaction (id),
+    subject_id         BIGINT    NOT NULL REFERENCES subject (id),
+    subject_getter_id  BIGINT    NOT NULL REFERENCES subject (id),
+    user_id            BIGINT    NOT NULL REFERENCES user_table (id)
+);
+
+CREATE INDEX idx_transaction_user_date_id ON transaction (user_id, date_time, id);
+
+CREATE TABLE daily_statistic
+(
+    id               BIGINT           NOT NULL PRIMARY KEY,
+    user_id          BIGINT           NOT NULL,
+    stat_date        DATE             NOT NULL,
+    category_id      BIGINT           NOT NULL,
+    transaction_type VARCHAR(255)     NOT NULL,
+    sum              DOUBLE PRECISION NOT NULL,
+    count            BIGINT           NOT NULL,
+    CONSTRAINT uk_daily_statistic_key UNIQUE (user_id, stat_date, category_id, transaction_type)
+);
@@ -0,0 +1,37 @@
+-- Вторичные индексы под запросы TransactionRepository, поиска и отчётов.
+-- (user_id, date_time, id) уже есть: им закрыты выборки пользователя по периоду и постраничная выдача.
+-- subject.inn и bank.bill/rbill индексированы своими уникальными ограничениями.
+
+-- Транзакции пользователя в статусе (фильтр поиска, массовая смена статуса)
+CREATE INDEX IF NOT EXISTS idx_transaction_user_status ON transaction (user_id, status);
+-- findByStatus
+CREATE INDEX IF NOT EXISTS idx_transaction_status ON transaction (status);
+-- findByDateBetween без пользователя
+CREATE INDEX IF NOT EXISTS idx_transaction_date_time ON transaction (date_time);
+-- Внешние ключи: поиск по категории, банкам и получателю и соединения с ними
+CREATE INDEX IF NOT EXISTS idx_transaction_category ON transaction (category_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_sender_bank ON transaction (sender_bank_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_recipient_bank ON transaction (recipient_bank_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_subject_getter ON transaction (subject_getter_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_subject_sender ON transaction (subject_id);
+
+-- findBySenderBank / findByRecipientBank: t.senderBank.nameBank = :bankName
+CREATE INDEX IF NOT EXISTS idx_bank_name_bank ON bank (name_bank);
+CREATE INDEX IF NOT EXISTS idx_bank_subject ON bank (subject_id);
+
+-- findByAmountBetween и фильтр поиска по сумме
+CREATE INDEX IF NOT EXISTS idx_reg_transaction_sum ON reg_transaction (sum);
+
+-- Раньше id выдавались через IDENTITY: если sequence отстаёт от существующих id,
+-- подтягиваем его вперёд (на шаг allocationSize), иначе первые вставки упадут на дубликате ключа.
+-- Однократно при миграции — вместо проверки при каждом старте приложения.
+SELECT setval('transaction_seq', GREATEST((SELECT last_value FROM transaction_seq),
+                                          (SELECT COALESCE(MAX(id), 0) + 50 FROM transaction)));
+SELECT setval('reg_transaction_seq', GREATEST((SELECT last_value FROM reg_transaction_seq),
+                                              (SELECT COALESCE(MAX(id), 0) + 50 FROM reg_transaction)));
+SELECT setval('bank_seq', GREATEST((SELECT last_value FROM bank_seq),
+                                   (SELECT COALESCE(MAX(id), 0) + 50 FROM bank)));
+SELECT setval('subject_seq', GREATEST((SELECT last_value FROM subject_seq),
+                                      (SELECT COALESCE(MAX(id), 0) + 50 FROM subject)));
+SELECT setval('category_seq', GREATEST((SELECT last_value FROM category_seq),
+                                       (SELECT COALESCE(MAX(id), 0) + 50 FROM category)));
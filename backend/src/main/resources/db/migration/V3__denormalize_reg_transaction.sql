@@ -0,0 +1,22 @@
+-- Регистр накопления хранит владельца, категорию, статус и дату проведения транзакции,
+-- чтобы агрегаты по нему не соединялись с таблицей transaction.
+
+ALTER TABLE reg_transaction
+    ADD COLUMN IF NOT EXISTS user_id     BIGINT,
+    ADD COLUMN IF NOT EXISTS category_id BIGINT,
+    ADD COLUMN IF NOT EXISTS status      VARCHAR(255);
+
+-- Заполняем из транзакций; дата проведения — день транзакции (раньше ставилась при создании записи)
+UPDATE reg_transaction r
+SET user_id     = t.user_id,
+    category_id = t.category_id,
+    status      = t.status,
+    date        = CAST(t.date_time AS date)
+FROM transaction t
+WHERE t.reg_transaction_id = r.id;
+
+-- Покрывающий индекс для агрегатов по пользователю, дню, категории и типу:
+-- сумма лежит в самом индексе, удалённые записи в него не попадают
+CREATE INDEX IF NOT EXISTS idx_reg_transaction_stat
+    ON reg_transaction (user_id, date, category_id, transaction_type) INCLUDE (sum)
+    WHERE status <> 'PAYMENT_DELETED';
@@ -0,0 +1,19 @@
+-- Суммы хранятся точно: BIGINT с количеством минимальных единиц (1/100000), см. Money.
+-- Через NUMERIC, чтобы значение double округлялось до 5 знаков без двоичной погрешности.
+
+ALTER TABLE reg_transaction
+    ALTER COLUMN sum TYPE BIGINT USING ROUND(CAST(sum AS NUMERIC) * 100000);
+
+ALTER TABLE daily_statistic
+    ALTER COLUMN sum TYPE BIGINT USING ROUND(CAST(sum AS NUMERIC) * 100000);
+
+-- Накопленные в double дневные суммы могли разойтись с точными: пересчитываем их из регистра
+DELETE FROM daily_statistic;
+
+INSERT INTO daily_statistic (id, user_id, stat_date, category_id, transaction_type, sum, count)
+SELECT nextval('daily_statistic_seq'), g.user_id, g.stat_date, g.category_id, g.transaction_type, g.sum, g.count
+FROM (SELECT r.user_id, r.date AS stat_date, r.category_id, r.transaction_type,
+             SUM(r.sum) AS sum, COUNT(*) AS count
+      FROM reg_transaction r
+      WHERE r.status <> 'PAYMENT_DELETED' AND r.user_id IS NOT NULL AND r.category_id IS NOT NULL
+      GROUP BY r.user_id, r.date, r.category_id, r.transaction_type) g;
@@ -0,0 +1,6 @@
+-- Версии для оптимистической блокировки (@Version): существующие строки начинают с 0
+ALTER TABLE transaction
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE reg_transaction
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
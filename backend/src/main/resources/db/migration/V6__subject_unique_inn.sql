@@ -0,0 +1,31 @@
+-- На уникальности subject.inn держится upsert субъекта (ON CONFLICT (inn)). В базе, созданной
+-- до миграций (baseline), ограничения могло не быть: дубликаты ИНН сливаем в субъекта с наименьшим id,
+-- ссылки транзакций и счетов переводим на него, затем создаём уникальный индекс.
+
+CREATE TEMPORARY TABLE subject_duplicate ON COMMIT DROP AS
+SELECT s.id, k.keep_id
+FROM subject s
+         JOIN (SELECT inn, MIN(id) AS keep_id
+               FROM subject
+               WHERE inn IS NOT NULL
+               GROUP BY inn
+               HAVING COUNT(*) > 1) k ON k.inn = s.inn AND s.id <> k.keep_id;
+
+UPDATE transaction t SET subject_id = d.keep_id FROM subject_duplicate d WHERE t.subject_id = d.id;
+UPDATE transaction t SET subject_getter_id = d.keep_id FROM subject_duplicate d WHERE t.subject_getter_id = d.id;
+UPDATE bank b SET subject_id = d.keep_id FROM subject_duplicate d WHERE b.subject_id = d.id;
+DELETE FROM subject s USING subject_duplicate d WHERE s.id = d.id;
+
+-- Если уникальность уже есть (UNIQUE из V1), второй индекс не нужен
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1
+                   FROM pg_index i
+                            JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+                   WHERE i.indrelid = 'subject'::regclass
+                     AND i.indisunique AND i.indnkeyatts = 1
+                     AND i.indpred IS NULL AND i.indexprs IS NULL
+                     AND a.attname = 'inn') THEN
+        CREATE UNIQUE INDEX uk_subject_inn ON subject (inn);
+    END IF;
+END $$;
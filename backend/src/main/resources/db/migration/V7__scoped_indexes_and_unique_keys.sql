@@ -0,0 +1,76 @@
+-- 1. Индексы транзакций под выборки пользователя.
+-- Поиск без пользователя (findByStatus, findByDateBetween) удалён: одиночные индексы по status и date_time
+-- больше ничему не служат, а каждую вставку замедляют. Их заменяют (user_id, status) из V2
+-- и (user_id, date_time, id) — последний есть в V1, но в базе до миграций (baseline) мог отсутствовать.
+DROP INDEX IF EXISTS idx_transaction_status;
+DROP INDEX IF EXISTS idx_transaction_date_time;
+CREATE INDEX IF NOT EXISTS idx_transaction_user_date_id ON transaction (user_id, date_time, id);
+
+-- 2. Уникальные ключи, на которых держатся ON CONFLICT: bank.bill (upsert счетов),
+-- category.name (создание категорий), ключ daily_statistic (дневные агрегаты).
+-- В V1 они объявлены, но базу до миграций создавал ddl-auto: дубликаты сливаем, затем создаём
+-- уникальный индекс, если равноценного ещё нет.
+
+-- Уникальный индекс на ровно этих столбцах (без условия и выражений), создаётся только при отсутствии
+CREATE FUNCTION pg_temp.ensure_unique(tbl regclass, cols text[], index_name text) RETURNS void AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1
+                   FROM pg_index i
+                   WHERE i.indrelid = tbl
+                     AND i.indisunique
+                     AND i.indpred IS NULL AND i.indexprs IS NULL
+                     AND i.indnkeyatts = cardinality(cols)
+                     AND (SELECT array_agg(a.attname::text ORDER BY a.attname)
+                          FROM pg_attribute a
+                          WHERE a.attrelid = i.indrelid
+                            AND a.attnum = ANY (i.indkey::int2[])) = (SELECT array_agg(c ORDER BY c) FROM unnest(cols) c)) THEN
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %s (%s)', index_name, tbl,
+                       (SELECT string_agg(quote_ident(c), ', ') FROM unnest(cols) c));
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Категории: дубликаты имени сливаем в категорию с наименьшим id
+CREATE TEMPORARY TABLE category_duplicate ON COMMIT DROP AS
+SELECT c.id, k.keep_id
+FROM category c
+         JOIN (SELECT name, MIN(id) AS keep_id FROM category GROUP BY name HAVING COUNT(*) > 1) k
+              ON k.name = c.name AND c.id <> k.keep_id;
+
+UPDATE transaction t SET category_id = d.keep_id FROM category_duplicate d WHERE t.category_id = d.id;
+UPDATE reg_transaction r SET category_id = d.keep_id FROM category_duplicate d WHERE r.category_id = d.id;
+UPDATE daily_statistic s SET category_id = d.keep_id FROM category_duplicate d WHERE s.category_id = d.id;
+DELETE FROM category c USING category_duplicate d WHERE c.id = d.id;
+
+SELECT pg_temp.ensure_unique('category', ARRAY ['name'], 'uk_category_name');
+
+-- Дневная статистика: строки с одним ключом (в том числе после слияния категорий) складываем в одну
+CREATE TEMPORARY TABLE daily_statistic_merged ON COMMIT DROP AS
+SELECT MIN(id) AS keep_id, SUM(sum) AS sum, SUM(count) AS count
+FROM daily_statistic
+GROUP BY user_id, stat_date, category_id, transaction_type
+HAVING COUNT(*) > 1;
+
+DELETE FROM daily_statistic s
+    USING daily_statistic k, daily_statistic_merged m
+WHERE k.id = m.keep_id
+  AND s.id <> k.id
+  AND s.user_id = k.user_id AND s.stat_date = k.stat_date
+  AND s.category_id = k.category_id AND s.transaction_type = k.transaction_type;
+UPDATE daily_statistic s SET sum = m.sum, count = m.count FROM daily_statistic_merged m WHERE s.id = m.keep_id;
+
+SELECT pg_temp.ensure_unique('daily_statistic', ARRAY ['user_id', 'stat_date', 'category_id', 'transaction_type'],
+                             'uk_daily_statistic_key');
+
+-- Счета: дубликаты номера сливаем в счёт с наименьшим id
+CREATE TEMPORARY TABLE bank_duplicate ON COMMIT DROP AS
+SELECT b.id, k.keep_id
+FROM bank b
+         JOIN (SELECT bill, MIN(id) AS keep_id FROM bank WHERE bill IS NOT NULL GROUP BY bill HAVING COUNT(*) > 1) k
+              ON k.bill = b.bill AND b.id <> k.keep_id;
+
+UPDATE transaction t SET sender_bank_id = d.keep_id FROM bank_duplicate d WHERE t.sender_bank_id = d.id;
+UPDATE transaction t SET recipient_bank_id = d.keep_id FROM bank_duplicate d WHERE t.recipient_bank_id = d.id;
+DELETE FROM bank b USING bank_duplicate d WHERE b.id = d.id;
+
+SELECT pg_temp.ensure_unique('bank', ARRAY ['bill'], 'uk_bank_bill');
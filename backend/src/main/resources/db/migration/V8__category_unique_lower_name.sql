@@ -0,0 +1,29 @@
+-- Категории различаются без учёта регистра: справочник в памяти и CategoryService ищут их по lower(name).
+-- Уникальный индекс по lower(name) не даст создать "Food" и "food" ни параллельно, ни в разных экземплярах
+-- приложения. Уже существующие варианты одного имени сливаем в категорию с наименьшим id.
+
+CREATE TEMPORARY TABLE category_duplicate ON COMMIT DROP AS
+SELECT c.id, k.keep_id
+FROM category c
+         JOIN (SELECT lower(name) AS name, MIN(id) AS keep_id
+               FROM category
+               GROUP BY lower(name)
+               HAVING COUNT(*) > 1) k ON k.name = lower(c.name) AND c.id <> k.keep_id;
+
+UPDATE transaction t SET category_id = d.keep_id FROM category_duplicate d WHERE t.category_id = d.id;
+UPDATE reg_transaction r SET category_id = d.keep_id FROM category_duplicate d WHERE r.category_id = d.id;
+
+-- Дневные строки слитых категорий складываем в строку оставшейся
+INSERT INTO daily_statistic (id, user_id, stat_date, category_id, transaction_type, sum, count)
+SELECT nextval('daily_statistic_seq'), s.user_id, s.stat_date, d.keep_id, s.transaction_type, SUM(s.sum), SUM(s.count)
+FROM daily_statistic s
+         JOIN category_duplicate d ON d.id = s.category_id
+GROUP BY s.user_id, s.stat_date, d.keep_id, s.transaction_type
+ON CONFLICT (user_id, stat_date, category_id, transaction_type) DO UPDATE SET
+    sum = daily_statistic.sum + EXCLUDED.sum,
+    count = daily_statistic.count + EXCLUDED.count;
+DELETE FROM daily_statistic s USING category_duplicate d WHERE s.category_id = d.id;
+
+DELETE FROM category c USING category_duplicate d WHERE c.id = d.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_category_lower_name ON category (lower(name));
@@ -0,0 +1,38 @@
+-- Постраничная выдача идёт по ключу (date_time, id): строка без даты не попадает ни в одно условие курсора
+-- и не отдаётся ни на одной странице, кроме первой. Сущность требует дату (@NotNull), но старые строки
+-- могли остаться без неё. Такие транзакции получают дату проведения из регистра, а если нет и её —
+-- время миграции (при сортировке по убыванию они и раньше шли первыми), после чего столбец NOT NULL.
+
+CREATE TEMPORARY TABLE transaction_without_date ON COMMIT DROP AS
+SELECT t.id, t.reg_transaction_id
+FROM transaction t
+WHERE t.date_time IS NULL;
+
+UPDATE transaction t
+SET date_time = COALESCE(CAST(r.date AS TIMESTAMP), LOCALTIMESTAMP)
+FROM transaction_without_date w
+         LEFT JOIN reg_transaction r ON r.id = w.reg_transaction_id
+WHERE t.id = w.id;
+
+-- Дата проведения в регистре — день транзакции (как в V3)
+UPDATE reg_transaction r
+SET date = CAST(t.date_time AS DATE)
+FROM transaction_without_date w
+         JOIN transaction t ON t.id = w.id
+WHERE r.id = w.reg_transaction_id;
+
+-- Без даты транзакции не входили в дневные агрегаты: добавляем их вклад
+INSERT INTO daily_statistic AS d (id, user_id, stat_date, category_id, transaction_type, sum, count)
+SELECT nextval('daily_statistic_seq'), g.user_id, g.stat_date, g.category_id, g.transaction_type, g.sum, g.count
+FROM (SELECT r.user_id, r.date AS stat_date, r.category_id, r.transaction_type,
+             SUM(r.sum) AS sum, COUNT(*) AS count
+      FROM transaction_without_date w
+               JOIN reg_transaction r ON r.id = w.reg_transaction_id
+      WHERE r.status <> 'PAYMENT_DELETED' AND r.user_id IS NOT NULL AND r.category_id IS NOT NULL
+      GROUP BY r.user_id, r.date, r.category_id, r.transaction_type) g
+ON CONFLICT (user_id, stat_date, category_id, transaction_type)
+    DO UPDATE SET sum   = d.sum + EXCLUDED.sum,
+                  count = d.count + EXCLUDED.count;
+
+ALTER TABLE transaction
+    ALTER COLUMN date_time SET NOT NULL;
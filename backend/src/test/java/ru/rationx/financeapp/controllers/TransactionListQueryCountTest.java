@@ -0,0 +1,109 @@
+package ru.rationx.financeapp.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.services.TransactionService;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Списочные эндпоинты транзакций не делают N+1: число запросов к базе не зависит от количества строк.
+ * Связи для LiteTransactionDTO (банки, субъекты, категория, регистр) приходят графом Transaction.LIST_GRAPH.
+ * Без графа каждый из ROWS ответов догружал бы связи отдельными select — запросов было бы больше ROWS.
+ */
+class TransactionListQueryCountTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AuthUser principal;
+    private Map<String, Object> vars;
+
+    @BeforeEach
+    void setUp() {
+        User owner = createUser();
+        principal = principal(owner);
+
+        List<TransactionDTO> items = IntStream.range(0, ROWS)
+                .mapToObj(i -> transaction(i, "Категория " + (i % 4),
+                        i % 4 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT, "100." + (i + 1)))
+                .toList();
+        TransactionBatchResultDTO result = transactionService.createBatch(items, owner.getId());
+        assertThat(result.getCreated()).isEqualTo(ROWS);
+
+        Transaction first = transactionService.getById(result.getItems().get(0).getId(), owner.getId());
+        vars = Map.of(
+                "id", first.getId(),
+                "category", first.getCategory().getId(),
+                "inn", first.getSubjectGetter().getInn(),
+                "bank", first.getSenderBank().getNameBank(),
+                "recipientBank", first.getRecipientBank().getNameBank(),
+                "today", LocalDate.now().toString());
+    }
+
+    // Эндпоинт и сколько запросов ему разрешено (не считая аутентификации — она из контекста теста)
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+                Arguments.of("/api/transactions", 2),
+                Arguments.of("/api/transactions/status?status=NEW", 2),
+                Arguments.of("/api/transactions/recipient-inn/{inn}", 2),
+                Arguments.of("/api/transactions/type?type=CREDIT", 2),
+                Arguments.of("/api/transactions/category/{category}", 2),
+                Arguments.of("/api/transactions/sender-bank/{bank}", 2),
+                Arguments.of("/api/transactions/recipient-bank/{recipientBank}", 2),
+                Arguments.of("/api/transactions/date-range?startDate={today}&endDate={today}", 2),
+                Arguments.of("/api/transactions/amount-range?minAmount=0.01&maxAmount=999999", 2),
+                // страница + count
+                Arguments.of("/api/transactions/search?size=10&sort=sum&direction=asc", 3),
+                Arguments.of("/api/transactions/get-all-tr", 2),
+                Arguments.of("/api/transactions/get-all-tr?limit=10", 2),
+                Arguments.of("/api/transactions/{id}", 2)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void listEndpointDoesNotIssueQueryPerRow(String path, int maxStatements) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.isStatisticsEnabled()).isTrue();
+        statistics.clear();
+
+        mockMvc.perform(get(UriComponentsBuilder.fromUriString(path).buildAndExpand(vars).encode().toUri())
+                        .with(user(principal)))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements for %s", path)
+                .isLessThanOrEqualTo(maxStatements);
+    }
+}
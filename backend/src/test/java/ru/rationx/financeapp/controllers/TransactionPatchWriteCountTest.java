@@ -0,0 +1,101 @@
+package ru.rationx.financeapp.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
+import ru.rationx.financeapp.models.transaction.RegTransaction;
+import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.services.TransactionService;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH пишет в базу только то, что действительно изменилось. Правка одного комментария — один UPDATE
+ * строки transaction (регистр, субъекты, счета и дневные агрегаты не трогаются), PATCH теми же значениями
+ * не пишет ничего. Запросы считаются по статистике Hibernate, как в TransactionListQueryCountTest.
+ */
+class TransactionPatchWriteCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AuthUser principal;
+    private Long id;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User owner = createUser();
+        principal = principal(owner);
+
+        TransactionBatchResultDTO result = transactionService.createBatch(
+                List.of(transaction(1, "Категория", TransactionType.DEBIT, "100.5")), owner.getId());
+        assertThat(result.getCreated()).isEqualTo(1);
+        id = result.getItems().get(0).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.isStatisticsEnabled()).isTrue();
+        statistics.clear();
+    }
+
+    @Test
+    void commentOnlyPatchIssuesSingleUpdateOfTransaction() throws Exception {
+        patchTransaction("{\"comment\":\"Новый комментарий\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comment").value("Новый комментарий"));
+
+        assertThat(statistics.getEntityUpdateCount()).as("UPDATE statements").isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getUpdateCount())
+                .as("UPDATE transaction").isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(RegTransaction.class.getName()).getUpdateCount())
+                .as("UPDATE reg_transaction").isZero();
+        assertNoInsertsOrDeletes();
+        // select транзакции со связями, UPDATE transaction; изменений регистра нет — upsert агрегатов не выполняется
+        assertThat(statistics.getPrepareStatementCount()).as("SQL statements").isEqualTo(2);
+    }
+
+    @Test
+    void noOpPatchIssuesNoWrites() throws Exception {
+        patchTransaction("{\"comment\":\"Тест 1\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comment").value("Тест 1"));
+
+        assertThat(statistics.getEntityUpdateCount()).as("UPDATE statements").isZero();
+        assertNoInsertsOrDeletes();
+        // Только чтение транзакции
+        assertThat(statistics.getPrepareStatementCount()).as("SQL statements").isEqualTo(1);
+    }
+
+    private ResultActions patchTransaction(String body) throws Exception {
+        return mockMvc.perform(patch("/api/transactions/{id}", id)
+                .with(user(principal))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private void assertNoInsertsOrDeletes() {
+        assertThat(statistics.getEntityInsertCount()).as("INSERT statements").isZero();
+        assertThat(statistics.getEntityDeleteCount()).as("DELETE statements").isZero();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.rationx.financeapp.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PUT и PATCH отвечают на ошибки одинаково: нет транзакции — 404, неверный запрос — 400.
+ */
+class TransactionUpdateErrorTest extends PostgresIntegrationTest {
+
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void missingTransactionIsNotFound() throws Exception {
+        AuthUser principal = principal(createUser());
+        String body = objectMapper.writeValueAsString(transaction(9000, "Обновление", TransactionType.DEBIT, "1"));
+
+        mockMvc.perform(put("/api/transactions/{id}", MISSING_ID)
+                        .with(user(principal)).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+
+        mockMvc.perform(patch("/api/transactions/{id}", MISSING_ID)
+                        .with(user(principal)).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"comment\":\"x\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void malformedVersionIsBadRequest() throws Exception {
+        AuthUser principal = principal(createUser());
+        String body = objectMapper.writeValueAsString(transaction(9001, "Обновление", TransactionType.DEBIT, "1"));
+
+        mockMvc.perform(put("/api/transactions/{id}", MISSING_ID)
+                        .with(user(principal)).with(csrf())
+                        .header("If-Match", "not-a-version")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+}
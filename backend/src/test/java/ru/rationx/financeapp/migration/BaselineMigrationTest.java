@@ -0,0 +1,112 @@
+package ru.rationx.financeapp.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Обновление базы, созданной до миграций (ddl-auto=update по прежним сущностям): Flyway принимает её
+ * за версию 1 и применяет остальные миграции. Итоговая схема должна совпасть со схемой finance,
+ * созданной миграциями с нуля и проверенной Hibernate при старте контекста (ddl-auto: validate).
+ */
+class BaselineMigrationTest extends PostgresIntegrationTest {
+
+    private static final String LEGACY = "legacy_finance";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Отдельные соединения без пула со схемой legacy_finance: миграции не должны видеть схему finance
+    // и временные объекты (pg_temp) сессий, которые уже выполняли миграции при старте приложения
+    private DataSource legacyDataSource;
+
+    @BeforeEach
+    void createLegacySchema() throws SQLException {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + LEGACY + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + LEGACY);
+
+        legacyDataSource = new DriverManagerDataSource(
+                dataSourceProperties.getUrl().replace("currentSchema=finance", "currentSchema=" + LEGACY),
+                dataSourceProperties.getUsername(), dataSourceProperties.getPassword());
+        try (Connection connection = legacyDataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/legacy/pre_flyway_schema.sql"));
+        }
+    }
+
+    @AfterEach
+    void dropLegacySchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + LEGACY + " CASCADE");
+    }
+
+    @Test
+    void migratesSchemaCreatedBeforeFlyway() {
+        MigrateResult result = Flyway.configure()
+                .dataSource(legacyDataSource)
+                .schemas(LEGACY)
+                .defaultSchema(LEGACY)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(result.success).isTrue();
+        assertThat(result.migrations.get(0).version).isEqualTo("1.1");
+
+        // Те же таблицы, столбцы и типы, что проверил Hibernate, и все его последовательности
+        assertThat(columns(LEGACY)).isEqualTo(columns("finance"));
+        assertThat(sequences(LEGACY)).containsAll(sequences("finance"));
+
+        // Суммы переведены в минимальные единицы, регистр дополнен данными транзакций
+        assertThat(jdbcTemplate.queryForList("SELECT sum FROM " + LEGACY + ".reg_transaction ORDER BY id", Long.class))
+                .containsExactly(Money.parse("12.34").units(), Money.parse("0.1").units(), Money.parse("100").units());
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM " + LEGACY + ".reg_transaction", Long.class))
+                .containsExactly(1L);
+
+        // Дневные агрегаты построены из регистра (удалённая транзакция не входит)
+        List<Map<String, Object>> daily = jdbcTemplate.queryForList(
+                "SELECT category_id, transaction_type, sum, count FROM " + LEGACY + ".daily_statistic");
+        assertThat(daily).containsExactly(Map.of("category_id", 1L, "transaction_type", "DEBIT",
+                "sum", Money.parse("12.44").units(), "count", 2L));
+
+        // Последовательности впереди id, выданных через IDENTITY
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('" + LEGACY + ".transaction_seq')", Long.class))
+                .isGreaterThan(3L);
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('" + LEGACY + ".subject_seq')", Long.class))
+                .isGreaterThan(2L);
+    }
+
+    private List<String> columns(String schema) {
+        return jdbcTemplate.queryForList("""
+                SELECT table_name || '.' || column_name || ' ' || data_type
+                FROM information_schema.columns
+                WHERE table_schema = ?
+                ORDER BY 1
+                """, String.class, schema);
+    }
+
+    private List<String> sequences(String schema) {
+        return jdbcTemplate.queryForList(
+                "SELECT sequence_name FROM information_schema.sequences WHERE sequence_schema = ? ORDER BY 1",
+                String.class, schema);
+    }
+}
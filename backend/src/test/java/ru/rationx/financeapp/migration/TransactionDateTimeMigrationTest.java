@@ -0,0 +1,113 @@
+package ru.rationx.financeapp.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * V9: транзакции без date_time получают дату (из регистра или время миграции), попадают в дневные агрегаты,
+ * а столбец становится NOT NULL — иначе такие строки выпадают из постраничной выдачи по (date_time, id).
+ */
+class TransactionDateTimeMigrationTest extends PostgresIntegrationTest {
+
+    private static final String SCHEMA = "date_time_finance";
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Как в BaselineMigrationTest: отдельные соединения без пула со своей схемой
+    private DataSource dataSource;
+
+    @BeforeEach
+    void createSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        dataSource = new DriverManagerDataSource(
+                dataSourceProperties.getUrl().replace("currentSchema=finance", "currentSchema=" + SCHEMA),
+                dataSourceProperties.getUsername(), dataSourceProperties.getPassword());
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void fillsMissingDateTimeAndMakesColumnNotNull() {
+        flyway("8").migrate();
+
+        JdbcTemplate db = new JdbcTemplate(dataSource);
+        db.update("INSERT INTO user_table (id, username, enabled, account_non_expired, credentials_non_expired, " +
+                "account_non_locked) VALUES (1, 'legacy', true, true, true, true)");
+        db.update("INSERT INTO category (id, name, applicable_type) VALUES (1, 'Food', 'CREDIT')");
+        db.update("INSERT INTO subject (id, name, inn) VALUES (1, 'Sender', '1000000001'), (2, 'Getter', '1000000002')");
+        // 1 — дата есть только в регистре, 2 — даты нет нигде, 3 — с датой и уже в агрегатах, 4 — удалённая
+        reg(db, 1, "DEBIT", "10", DAY, "NEW");
+        reg(db, 2, "CREDIT", "5", null, "NEW");
+        reg(db, 3, "DEBIT", "2", DAY, "NEW");
+        reg(db, 4, "DEBIT", "7", null, "PAYMENT_DELETED");
+        transaction(db, 1, null, "NEW");
+        transaction(db, 2, null, "NEW");
+        transaction(db, 3, DAY.atTime(12, 0), "NEW");
+        transaction(db, 4, null, "PAYMENT_DELETED");
+        db.update("INSERT INTO daily_statistic (id, user_id, stat_date, category_id, transaction_type, sum, count) " +
+                "VALUES (1, 1, ?, 1, 'DEBIT', ?, 1)", DAY, Money.parse("2").units());
+
+        LocalDate migrationDay = LocalDate.now();
+        flyway(null).migrate();
+
+        assertThat(db.queryForObject("SELECT is_nullable FROM information_schema.columns " +
+                "WHERE table_schema = ? AND table_name = 'transaction' AND column_name = 'date_time'", String.class, SCHEMA))
+                .isEqualTo("NO");
+        assertThat(db.queryForObject("SELECT date_time FROM transaction WHERE id = 1", LocalDateTime.class))
+                .isEqualTo(DAY.atStartOfDay());
+        assertThat(db.queryForObject("SELECT date_time FROM transaction WHERE id = 2", LocalDateTime.class).toLocalDate())
+                .isBetween(migrationDay, LocalDate.now());
+
+        // Регистр получил день транзакции, агрегаты — вклад неудалённых транзакций
+        assertThat(db.queryForList("SELECT id FROM reg_transaction WHERE date IS NULL", Long.class)).isEmpty();
+        List<Map<String, Object>> daily = db.queryForList(
+                "SELECT transaction_type, sum, count FROM daily_statistic ORDER BY transaction_type");
+        assertThat(daily).containsExactly(
+                Map.of("transaction_type", "CREDIT", "sum", Money.parse("5").units(), "count", 1L),
+                Map.of("transaction_type", "DEBIT", "sum", Money.parse("12").units(), "count", 2L));
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .defaultSchema(SCHEMA);
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+
+    private static void reg(JdbcTemplate db, long id, String type, String sum, LocalDate date, String status) {
+        db.update("INSERT INTO reg_transaction (id, transaction_type, sum, date, user_id, category_id, status) " +
+                "VALUES (?, ?, ?, ?, 1, 1, ?)", id, type, Money.parse(sum).units(), date, status);
+    }
+
+    private static void transaction(JdbcTemplate db, long id, LocalDateTime dateTime, String status) {
+        db.update("INSERT INTO transaction (id, status, date_time, category_id, reg_transaction_id, subject_id, " +
+                "subject_getter_id, user_id) VALUES (?, ?, ?, 1, ?, 1, 2, 1)", id, status, dateTime, id);
+    }
+}
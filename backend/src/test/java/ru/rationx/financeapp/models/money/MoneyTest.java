@@ -0,0 +1,187 @@
+package ru.rationx.financeapp.models.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Денежная сумма: точный разбор без округления, границы long, деление с округлением половины от нуля,
+ * запись без лишних нулей, JSON и проверки аннотаций DTO.
+ */
+class MoneyTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1500.25, 150025000",
+            "0.00001, 1",
+            "-12.5, -1250000",
+            "1.1234500000, 112345",
+            "1E+2, 10000000"
+    })
+    void parsesExactly(String value, long units) {
+        assertThat(Money.parse(value).units()).isEqualTo(units);
+        assertThat(Money.of(new BigDecimal(value)).units()).isEqualTo(units);
+    }
+
+    // Шестой знак после запятой — ошибка, а не округление
+    @ParameterizedTest
+    @ValueSource(strings = {"0.000001", "1.123456", "-0.000005"})
+    void rejectsMoreThanFiveFractionDigits(String value) {
+        assertThatThrownBy(() -> Money.parse(value))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("не более 5 знаков");
+        assertThatThrownBy(() -> Money.of(new BigDecimal(value)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsValuesOutsideLongUnits() {
+        assertThat(Money.parse("92233720368547.75807").units()).isEqualTo(Long.MAX_VALUE);
+        assertThat(Money.parse("-92233720368547.75808").units()).isEqualTo(Long.MIN_VALUE);
+
+        assertThatThrownBy(() -> Money.parse("92233720368547.75808"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("диапазон");
+        assertThatThrownBy(() -> Money.parse("-92233720368547.75809"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNonNumbers() {
+        assertThatThrownBy(() -> Money.parse("abc"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Некорректная сумма: abc");
+    }
+
+    @Test
+    void arithmeticFailsOnOverflowInsteadOfWrapping() {
+        Money max = Money.ofUnits(Long.MAX_VALUE);
+        assertThatThrownBy(() -> max.plus(Money.ofUnits(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofUnits(Long.MIN_VALUE).minus(Money.ofUnits(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    // Половина округляется от нуля при любом знаке делимого и делителя
+    @ParameterizedTest(name = "{0} / {1} = {2}")
+    @CsvSource({
+            "5, 2, 3",
+            "-5, 2, -3",
+            "5, -2, -3",
+            "-5, -2, 3",
+            "-4, 3, -1",
+            "-5, 3, -2",
+            "4, 3, 1",
+            "-7, 7, -1",
+            "0, 3, 0"
+    })
+    void dividedByRoundsHalfAwayFromZero(long units, long divisor, long expected) {
+        assertThat(Money.ofUnits(units).dividedBy(divisor).units()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1500.50000, 1500.5",
+            "100, 100",
+            "1E+2, 100",
+            "0.00000, 0",
+            "12.00001, 12.00001",
+            "-0.10, -0.1"
+    })
+    void toStringStripsTrailingZeros(String value, String expected) {
+        assertThat(Money.parse(value)).hasToString(expected);
+    }
+
+    @Test
+    void readsJsonNumberAndString() throws Exception {
+        Money expected = Money.parse("1500.25");
+        assertThat(MAPPER.readValue("1500.25", Money.class)).isEqualTo(expected);
+        assertThat(MAPPER.readValue("\"1500.25\"", Money.class)).isEqualTo(expected);
+        // Число читается как десятичное, без промежуточного double
+        assertThat(MAPPER.readValue("0.30000", Money.class)).isEqualTo(Money.parse("0.3"));
+    }
+
+    @Test
+    void jsonRoundTripKeepsExactValue() throws Exception {
+        Money money = Money.parse("12345.00001");
+        String json = MAPPER.writeValueAsString(money);
+
+        assertThat(json).isEqualTo("12345.00001");
+        assertThat(MAPPER.readValue(json, Money.class)).isEqualTo(money);
+        assertThat(MAPPER.readValue("\"" + money + "\"", Money.class)).isEqualTo(money);
+    }
+
+    @Test
+    void rejectsInvalidJson() {
+        assertThatThrownBy(() -> MAPPER.readValue("1.123456", Money.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> MAPPER.readValue("\"abc\"", Money.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+
+    // Аннотации суммы в TransactionDTO (@DecimalMin, @DecimalMax, @Digits) работают с Money как с числом
+    @ParameterizedTest
+    @ValueSource(strings = {"0.01", "1500.25", "999999.99999"})
+    void validSumPassesDtoConstraints(String sum) {
+        assertThat(validateSum(Money.parse(sum))).isEmpty();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.00999, Сумма должна быть в диапазоне от 0.01 до 999999.99999",
+            "-5, Сумма должна быть в диапазоне от 0.01 до 999999.99999",
+            "1000000, Сумма должна быть в диапазоне от 0.01 до 999999.99999"
+    })
+    void sumOutsideRangeFailsDtoConstraints(String sum, String message) {
+        assertThat(validateSum(Money.parse(sum))).extracting(ConstraintViolation::getMessage).contains(message);
+    }
+
+    @Test
+    void sumWithTooManyIntegerDigitsFailsDigits() {
+        assertThat(validateSum(Money.parse("1234567")))
+                .extracting(ConstraintViolation::getMessage)
+                .contains("Сумма: не более 6 цифр до запятой и 5 после");
+    }
+
+    @Test
+    void missingSumFailsNotNull() {
+        assertThat(validateSum(null))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("Значение `sum` не может быть null или пустым ");
+    }
+
+    private static Set<ConstraintViolation<TransactionDTO>> validateSum(Money sum) {
+        return validator.validateValue(TransactionDTO.class, "sum", sum);
+    }
+}
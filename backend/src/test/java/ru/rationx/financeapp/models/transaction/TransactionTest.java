@@ -0,0 +1,53 @@
+package ru.rationx.financeapp.models.transaction;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.rationx.financeapp.models.transaction.TransactionStatus.*;
+
+/**
+ * Матрица переходов массовой смены статуса: из каких статусов можно перевести транзакцию в каждый целевой.
+ */
+class TransactionTest {
+
+    static Stream<Arguments> transitions() {
+        return Stream.of(
+                Arguments.of(NEW, EnumSet.noneOf(TransactionStatus.class)),
+                Arguments.of(ACCEPTED, EnumSet.of(NEW)),
+                Arguments.of(PROCESSING, EnumSet.of(NEW, ACCEPTED)),
+                Arguments.of(CANCELED, EnumSet.of(NEW)),
+                Arguments.of(PAYMENT_COMPLETED, EnumSet.of(NEW, PROCESSING)),
+                Arguments.of(PAYMENT_DELETED, EnumSet.of(NEW)),
+                Arguments.of(RETURN, EnumSet.of(NEW))
+        );
+    }
+
+    @ParameterizedTest(name = "{0} <- {1}")
+    @MethodSource("transitions")
+    void allowedSourcesFor(TransactionStatus target, Set<TransactionStatus> expected) {
+        assertThat(Transaction.allowedSourcesFor(target)).isEqualTo(expected);
+    }
+
+    // Матрица покрывает все статусы: новый статус без правила перехода не останется незамеченным
+    @ParameterizedTest
+    @EnumSource(TransactionStatus.class)
+    void everyStatusHasTransitionRule(TransactionStatus target) {
+        assertThat(transitions().map(arguments -> arguments.get()[0])).contains(target);
+        assertThat(Transaction.allowedSourcesFor(target)).doesNotContain(target);
+    }
+
+    // Удалить можно только то, что ещё не ушло в обработку
+    @ParameterizedTest
+    @EnumSource(TransactionStatus.class)
+    void deletionFollowsIsDeletable(TransactionStatus source) {
+        boolean allowed = Transaction.allowedSourcesFor(PAYMENT_DELETED).contains(source);
+        assertThat(allowed).isEqualTo(source != PAYMENT_DELETED && Transaction.isDeletable(source));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.rationx.financeapp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.rationx.financeapp.models.transaction.Category;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.repository.CategoryRepository;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Справочник создаёт одну категорию на имя без учёта регистра — в том числе при параллельных вызовах.
+ */
+class CategoryRegistryTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void nameIsResolvedIgnoringCase() {
+        String name = "Category " + UUID.randomUUID();
+
+        Category created = categoryRegistry.getOrCreate(name, TransactionType.DEBIT);
+        Category found = categoryRegistry.getOrCreate(name.toUpperCase(), TransactionType.DEBIT);
+
+        assertThat(found.getId()).isEqualTo(created.getId());
+        assertThat(categoryRepository.findByNameIgnoreCase(name)).isPresent();
+    }
+
+    @Test
+    void concurrentCallsCreateOneCategory() throws Exception {
+        String name = "Parallel " + UUID.randomUUID();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Category>> futures = IntStream.range(0, THREADS)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        await(start);
+                        // Половина потоков пишет имя заглавными: это та же категория
+                        return categoryRegistry.getOrCreate(i % 2 == 0 ? name : name.toUpperCase(), TransactionType.CREDIT);
+                    }, executor))
+                    .toList();
+            start.countDown();
+
+            List<Long> ids = futures.stream().map(CompletableFuture::join).map(Category::getId).distinct().toList();
+            assertThat(ids).hasSize(1);
+            assertThat(categoryRepository.findAll())
+                    .filteredOn(c -> c.getName().equalsIgnoreCase(name))
+                    .hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
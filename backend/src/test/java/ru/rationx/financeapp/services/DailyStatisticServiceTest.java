@@ -0,0 +1,148 @@
+package ru.rationx.financeapp.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.Category;
+import ru.rationx.financeapp.models.transaction.RegTransaction;
+import ru.rationx.financeapp.models.transaction.Transaction;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.services.DailyStatisticService.Contribution;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Дневные агрегаты: вклад транзакций прибавляется, вычитается и переносится атомарными upsert,
+ * а полный пересчёт из регистра даёт те же строки.
+ */
+class DailyStatisticServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private static final long CATEGORY = 1L;
+    private static final long OTHER_CATEGORY = 2L;
+
+    @Autowired
+    private DailyStatisticService dailyStatisticService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser();
+    }
+
+    @Test
+    void snapshotSkipsIncompleteAndDeletedTransactions() {
+        Transaction complete = transaction(TransactionType.DEBIT, TransactionStatus.NEW);
+        assertThat(dailyStatisticService.snapshot(complete))
+                .isEqualTo(new Contribution(user.getId(), DAY, CATEGORY, TransactionType.DEBIT, Money.parse("10").units()));
+
+        assertThat(dailyStatisticService.snapshot(transaction(null, TransactionStatus.NEW))).isNull();
+        assertThat(dailyStatisticService.snapshot(transaction(TransactionType.DEBIT, TransactionStatus.PAYMENT_DELETED))).isNull();
+        assertThat(dailyStatisticService.snapshot(null)).isNull();
+    }
+
+    @Test
+    void addAndSubtractKeepSumAndCount() {
+        dailyStatisticService.add(contribution(CATEGORY, TransactionType.DEBIT, "10"));
+        dailyStatisticService.add(contribution(CATEGORY, TransactionType.DEBIT, "2.5"));
+        assertThat(rows()).containsExactly(row(CATEGORY, TransactionType.DEBIT, "12.5", 2));
+
+        dailyStatisticService.subtract(contribution(CATEGORY, TransactionType.DEBIT, "10"));
+        assertThat(rows()).containsExactly(row(CATEGORY, TransactionType.DEBIT, "2.5", 1));
+
+        // null — транзакция в агрегат не входит: ничего не меняется
+        dailyStatisticService.add(null);
+        dailyStatisticService.subtract(null);
+        assertThat(rows()).containsExactly(row(CATEGORY, TransactionType.DEBIT, "2.5", 1));
+    }
+
+    @Test
+    void replaceMovesContributionBetweenKeys() {
+        Contribution before = contribution(CATEGORY, TransactionType.DEBIT, "10");
+        dailyStatisticService.add(before);
+
+        // Тот же ключ: меняется только сумма
+        Contribution changedSum = contribution(CATEGORY, TransactionType.DEBIT, "7");
+        dailyStatisticService.replace(before, changedSum);
+        assertThat(rows()).containsExactly(row(CATEGORY, TransactionType.DEBIT, "7", 1));
+
+        // Другая категория: вклад уходит из старой строки в новую
+        Contribution moved = contribution(OTHER_CATEGORY, TransactionType.DEBIT, "7");
+        dailyStatisticService.replace(changedSum, moved);
+        assertThat(rows()).containsExactly(
+                row(CATEGORY, TransactionType.DEBIT, "0", 0),
+                row(OTHER_CATEGORY, TransactionType.DEBIT, "7", 1));
+
+        // Транзакция выпала из агрегата (удалена)
+        dailyStatisticService.replace(moved, null);
+        assertThat(rows()).containsExactly(
+                row(CATEGORY, TransactionType.DEBIT, "0", 0),
+                row(OTHER_CATEGORY, TransactionType.DEBIT, "0", 0));
+    }
+
+    @Test
+    void rebuildRecomputesFromRegister() {
+        insertRegister(CATEGORY, TransactionType.DEBIT, "10", TransactionStatus.NEW);
+        insertRegister(CATEGORY, TransactionType.DEBIT, "5", TransactionStatus.ACCEPTED);
+        insertRegister(CATEGORY, TransactionType.CREDIT, "3", TransactionStatus.NEW);
+        insertRegister(CATEGORY, TransactionType.DEBIT, "100", TransactionStatus.PAYMENT_DELETED);
+        // Расхождение, которое пересчёт должен исправить
+        dailyStatisticService.add(contribution(OTHER_CATEGORY, TransactionType.DEBIT, "42"));
+
+        dailyStatisticService.rebuild();
+
+        assertThat(rows()).containsExactly(
+                row(CATEGORY, TransactionType.CREDIT, "3", 1),
+                row(CATEGORY, TransactionType.DEBIT, "15", 2));
+    }
+
+    private Transaction transaction(TransactionType type, TransactionStatus status) {
+        return Transaction.builder()
+                .user(user)
+                .status(status)
+                .dateTime(LocalDateTime.of(DAY, LocalTime.NOON))
+                .category(new Category(CATEGORY, "Категория", type))
+                .regTransaction(RegTransaction.builder().transactionType(type).sum(Money.parse("10")).build())
+                .build();
+    }
+
+    private Contribution contribution(long categoryId, TransactionType type, String sum) {
+        return new Contribution(user.getId(), DAY, categoryId, type, Money.parse(sum).units());
+    }
+
+    private void insertRegister(long categoryId, TransactionType type, String sum, TransactionStatus status) {
+        jdbcTemplate.update("""
+                        INSERT INTO reg_transaction (id, transaction_type, sum, date, user_id, category_id, status, version)
+                        VALUES (nextval('reg_transaction_seq'), ?, ?, ?, ?, ?, ?, 0)
+                        """,
+                type.name(), Money.parse(sum).units(), DAY, user.getId(), categoryId, status.name());
+    }
+
+    private List<Map<String, Object>> rows() {
+        return jdbcTemplate.queryForList("""
+                SELECT category_id, transaction_type, sum, count
+                FROM daily_statistic
+                WHERE user_id = ? AND stat_date = ?
+                ORDER BY category_id, transaction_type
+                """, user.getId(), DAY);
+    }
+
+    private static Map<String, Object> row(long categoryId, TransactionType type, String sum, long count) {
+        return Map.of("category_id", categoryId, "transaction_type", type.name(),
+                "sum", Money.parse(sum).units(), "count", count);
+    }
+}
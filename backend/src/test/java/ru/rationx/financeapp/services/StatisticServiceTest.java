@@ -0,0 +1,57 @@
+package ru.rationx.financeapp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.services.DailyStatisticService.Contribution;
+import ru.rationx.financeapp.services.statistic.StatisticSummary;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сводка для отчёта: итоги и категории — за всё время, разбивка по дням — только за период.
+ */
+class StatisticServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 5, 1);
+    private static final LocalDate END = LocalDate.of(2024, 5, 31);
+
+    @Autowired
+    private StatisticService statisticService;
+    @Autowired
+    private DailyStatisticService dailyStatisticService;
+
+    @Test
+    void summaryKeepsAllTimeTotalsAndPeriodDays() {
+        User user = createUser();
+        add(user, LocalDate.of(2024, 4, 30), 1L, TransactionType.DEBIT, "100");
+        add(user, START, 1L, TransactionType.DEBIT, "10");
+        add(user, START, 2L, TransactionType.CREDIT, "4");
+        add(user, START, 2L, TransactionType.CREDIT, "1");
+        add(user, LocalDate.of(2024, 5, 20), 2L, TransactionType.CREDIT, "3");
+        add(user, LocalDate.of(2024, 6, 1), 1L, TransactionType.DEBIT, "50");
+
+        StatisticSummary summary = statisticService.summarize(user.getId(), START, END);
+
+        assertThat(summary.getTotalIncome()).isEqualTo(Money.parse("160"));
+        assertThat(summary.getTotalExpense()).isEqualTo(Money.parse("8"));
+        assertThat(summary.getTransactionCount()).isEqualTo(6);
+        assertThat(summary.getCategorySums()).isEqualTo(Map.of(1L, Money.parse("160"), 2L, Money.parse("8")));
+
+        List<String> days = new ArrayList<>();
+        summary.forEachDay((date, income, expenses, count) -> days.add(date + " " + income + " " + expenses + " " + count));
+        assertThat(days).containsExactly("2024-05-01 10 5 3", "2024-05-20 0 3 1");
+    }
+
+    private void add(User user, LocalDate date, long categoryId, TransactionType type, String sum) {
+        dailyStatisticService.add(new Contribution(user.getId(), date, categoryId, type, Money.parse(sum).units()));
+    }
+}
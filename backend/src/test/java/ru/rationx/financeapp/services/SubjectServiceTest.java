@@ -0,0 +1,48 @@
+package ru.rationx.financeapp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rationx.financeapp.models.subject.Subject;
+import ru.rationx.financeapp.repository.SubjectRepository;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Повторный ИНН находит существующего субъекта и перезаписывает его данные, не расходуя subject_seq.
+ */
+class SubjectServiceTest extends PostgresIntegrationTest {
+
+    private static final String INN = "7700000001";
+
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private SubjectRepository subjectRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void knownInnIsUpdatedWithoutTakingSequenceValue() {
+        Long created = transactionTemplate.execute(status -> subjectService.getOrCreateSubject(
+                INN, "ООО Первое", Subject.PersonType.LEGAL_TYPE, "Москва", null).getId());
+        Long sequence = lastSequenceValue();
+
+        Long again = transactionTemplate.execute(status -> subjectService.getOrCreateSubject(
+                " " + INN + " ", "ООО Второе", Subject.PersonType.LEGAL_TYPE, "Казань", null).getId());
+
+        assertThat(again).isEqualTo(created);
+        assertThat(lastSequenceValue()).isEqualTo(sequence);
+        Subject stored = subjectRepository.findByInn(INN).orElseThrow();
+        assertThat(stored.getName()).isEqualTo("ООО Второе");
+        assertThat(stored.getAddress()).isEqualTo("Казань");
+    }
+
+    private Long lastSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM subject_seq", Long.class);
+    }
+}
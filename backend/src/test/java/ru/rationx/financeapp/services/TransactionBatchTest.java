@@ -0,0 +1,79 @@
+package ru.rationx.financeapp.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.repository.TransactionRepository;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пакетное создание: ошибка одного элемента — проверки DTO или ограничения базы — не мешает сохранить остальные,
+ * а в ответе указан именно этот элемент.
+ */
+class TransactionBatchTest extends PostgresIntegrationTest {
+
+    private static final int FIRST = 5000;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void failedItemsAreReportedByIndexAndOthersAreSaved() {
+        User owner = createUser();
+
+        List<TransactionDTO> items = new ArrayList<>(IntStream.range(0, 8)
+                .mapToObj(i -> transaction(FIRST + i, "Пакет", TransactionType.DEBIT, "10.5"))
+                .toList());
+        // Не проходит аннотации DTO: неверный ИНН
+        items.get(2).setInn("123");
+        // Проходит аннотации, но не влезает в столбец comment VARCHAR(255): отклоняет база
+        items.get(5).setComment("x".repeat(300));
+
+        TransactionBatchResultDTO result = transactionService.createBatch(items, owner.getId());
+
+        assertThat(result.getCreated()).isEqualTo(6);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getItems()).extracting(TransactionBatchResultDTO.ItemResult::getIndex)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+
+        TransactionBatchResultDTO.ItemResult invalid = result.getItems().get(2);
+        assertThat(invalid.getId()).isNull();
+        assertThat(invalid.getError()).startsWith("inn: ");
+
+        TransactionBatchResultDTO.ItemResult rejected = result.getItems().get(5);
+        assertThat(rejected.getId()).isNull();
+        assertThat(rejected.getError()).isNotBlank();
+
+        List<Long> ids = result.getItems().stream()
+                .map(TransactionBatchResultDTO.ItemResult::getId)
+                .filter(id -> id != null)
+                .toList();
+        assertThat(ids).hasSize(6);
+        assertThat(transactionRepository.findAllById(ids)).hasSize(6);
+    }
+
+    @Test
+    void nullItemIsReportedWithoutFailingTheBatch() {
+        User owner = createUser();
+
+        List<TransactionDTO> items = new ArrayList<>();
+        items.add(transaction(FIRST + 100, "Пакет", TransactionType.CREDIT, "1"));
+        items.add(null);
+
+        TransactionBatchResultDTO result = transactionService.createBatch(items, owner.getId());
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems().get(1).getError()).isEqualTo("Пустой элемент пакета");
+    }
+}
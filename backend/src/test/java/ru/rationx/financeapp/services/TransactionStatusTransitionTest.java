@@ -0,0 +1,112 @@
+package ru.rationx.financeapp.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionStatusTransitionDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionStatusTransitionResultDTO;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.transaction.TransactionStatus;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.repository.TransactionRepository;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Массовая смена статуса: переход выполняет база, удалённые транзакции вычитаются из дневных агрегатов,
+ * а сущности в текущей транзакции Hibernate после перехода не устаревают.
+ */
+class TransactionStatusTransitionTest extends PostgresIntegrationTest {
+
+    private static final int FIRST = 7000;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser();
+        List<TransactionDTO> items = IntStream.range(0, 3)
+                .mapToObj(i -> transaction(FIRST + i, "Смена статуса", TransactionType.CREDIT, "10." + (i + 1)))
+                .toList();
+        TransactionBatchResultDTO result = transactionService.createBatch(items, user.getId());
+        ids = result.getItems().stream().map(TransactionBatchResultDTO.ItemResult::getId).toList();
+        assertThat(ids).doesNotContainNull();
+    }
+
+    @Test
+    void deletionSubtractsFromDailyStatistic() {
+        assertThat(dailyTotal()).isEqualTo(Map.of("sum", Money.parse("30.6").units(), "count", 3L));
+
+        TransactionStatusTransitionResultDTO result = transition(TransactionStatus.PAYMENT_DELETED, ids.get(0), ids.get(1));
+
+        assertThat(result.getIds()).containsExactlyInAnyOrder(ids.get(0), ids.get(1));
+        assertThat(dailyTotal()).isEqualTo(Map.of("sum", Money.parse("10.3").units(), "count", 1L));
+
+        // Повторное удаление запрещено: агрегаты не вычитаются второй раз
+        TransactionStatusTransitionResultDTO again = transition(TransactionStatus.PAYMENT_DELETED, ids.get(0));
+        assertThat(again.getUpdated()).isZero();
+        assertThat(again.getRejections()).singleElement()
+                .satisfies(rejection -> assertThat(rejection.getId()).isEqualTo(ids.get(0)));
+        assertThat(dailyTotal()).isEqualTo(Map.of("sum", Money.parse("10.3").units(), "count", 1L));
+    }
+
+    @Test
+    void acceptedTransactionCannotBeDeleted() {
+        transition(TransactionStatus.ACCEPTED, ids.get(2));
+
+        TransactionStatusTransitionResultDTO result = transition(TransactionStatus.PAYMENT_DELETED, ids.get(2), Long.MAX_VALUE);
+
+        assertThat(result.getUpdated()).isZero();
+        assertThat(result.getRejections()).extracting(TransactionStatusTransitionResultDTO.Rejection::getError)
+                .containsExactly("Переход из статуса «" + TransactionStatus.ACCEPTED.getDescription() + "» в «"
+                        + TransactionStatus.PAYMENT_DELETED.getDescription() + "» запрещён", "Транзакция не найдена");
+        assertThat(dailyTotal()).isEqualTo(Map.of("sum", Money.parse("30.6").units(), "count", 3L));
+    }
+
+    @Test
+    void loadedEntitiesAreRefreshedAfterTransition() {
+        Long id = ids.get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            Long versionBefore = transactionRepository.findById(id).orElseThrow().getVersion();
+
+            transition(TransactionStatus.ACCEPTED, id);
+
+            var reloaded = transactionRepository.findById(id).orElseThrow();
+            assertThat(reloaded.getStatus()).isEqualTo(TransactionStatus.ACCEPTED);
+            assertThat(reloaded.getVersion()).isEqualTo(versionBefore + 1);
+        });
+    }
+
+    private TransactionStatusTransitionResultDTO transition(TransactionStatus target, Long... transactionIds) {
+        TransactionStatusTransitionDTO request = new TransactionStatusTransitionDTO();
+        request.setStatus(target);
+        request.setIds(List.of(transactionIds));
+        return transactionService.transitionStatus(user.getId(), request);
+    }
+
+    private Map<String, Object> dailyTotal() {
+        return jdbcTemplate.queryForMap(
+                "SELECT CAST(SUM(sum) AS BIGINT) AS sum, CAST(SUM(count) AS BIGINT) AS count FROM daily_statistic WHERE user_id = ?",
+                user.getId());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.rationx.financeapp.services.report;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.rationx.financeapp.models.dto.transaction.TransactionBatchResultDTO;
+import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.services.TransactionService;
+import ru.rationx.financeapp.support.PostgresIntegrationTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Таблица транзакций PDF отчета: период — целые дни, как у дневных агрегатов, удалённые транзакции не выводятся.
+ */
+class PdfReportServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PdfReportService pdfReportService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportListsWholeDaysWithoutDeletedTransactions() throws IOException {
+        User owner = createUser();
+        List<TransactionDTO> items = IntStream.rangeClosed(1, 3)
+                .mapToObj(i -> transaction(i, "Категория", TransactionType.DEBIT, "10"))
+                .toList();
+        TransactionBatchResultDTO result = transactionService.createBatch(items, owner.getId());
+        transactionService.markAsDeleted(result.getItems().get(1).getId(), owner.getId());
+
+        LocalDateTime created = jdbcTemplate.queryForObject(
+                "SELECT min(date_time) FROM transaction WHERE user_id = ?", LocalDateTime.class, owner.getId());
+        // Период задан концом дня: транзакции, созданные в тот же день раньше, всё равно входят в отчёт
+        LocalDateTime endOfDay = created.toLocalDate().atTime(23, 59, 59);
+
+        String text = reportText(owner.getId(), endOfDay, endOfDay);
+
+        assertThat(text).contains("Тест 1", "Тест 3").doesNotContain("Тест 2");
+    }
+
+    private String reportText(Long userId, LocalDateTime start, LocalDateTime end) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfReportService.write(userId, start, end, out);
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(reader, page)).append('\n');
+            }
+            return text.toString();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.rationx.financeapp.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.rationx.financeapp.models.dto.transaction.TransactionDTO;
+import ru.rationx.financeapp.models.money.Money;
+import ru.rationx.financeapp.models.subject.Subject;
+import ru.rationx.financeapp.models.transaction.TransactionType;
+import ru.rationx.financeapp.models.user.AuthUser;
+import ru.rationx.financeapp.models.user.User;
+import ru.rationx.financeapp.repository.UserRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Основа интеграционных тестов: приложение поверх настоящего Postgres в контейнере.
+ * Схема создаётся миграциями Flyway, как в проде. Контейнер и контекст Spring одни на все тестовые классы
+ * (одинаковая конфигурация), без Docker тесты пропускаются. Статистика Hibernate включена — по ней
+ * тесты считают запросы к базе.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        String url = POSTGRES.getJdbcUrl();
+        registry.add("spring.datasource.url", () -> url + (url.contains("?") ? "&" : "?")
+                + "reWriteBatchedInserts=true&currentSchema=finance");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    // Новый пользователь с уникальным логином: тесты не видят данные друг друга
+    protected User createUser() {
+        return userRepository.save(User.builder()
+                .username("test-" + UUID.randomUUID())
+                .password("")
+                .build());
+    }
+
+    protected static AuthUser principal(User user) {
+        return new AuthUser(user.getId(), user.getUsername(), "", true, true, true, true, List.of());
+    }
+
+    /**
+     * Транзакция с уникальными отправителем, получателем и счетами (i — номер, от него зависят ИНН и счета)
+     */
+    protected static TransactionDTO transaction(int i, String category, TransactionType type, String sum) {
+        String suffix = String.format("%08d", i);
+        return TransactionDTO.builder()
+                .personType(Subject.PersonType.LEGAL_TYPE)
+                .name("Отправитель " + i)
+                .inn("10" + suffix)
+                .address("г. Москва, ул. Тестовая, " + i)
+                .personTypeRecipient(Subject.PersonType.PERSON_TYPE)
+                .nameRecipient("Получатель " + i)
+                .innRecipient("20" + suffix)
+                .nameBank("Банк " + (i % 3))
+                .bill("4080" + suffix)
+                .rBill("3010" + suffix)
+                .nameBankRecip("Банк получателя " + (i % 3))
+                .billRecip("4081" + suffix)
+                .rBillRecip("3011" + suffix)
+                .comment("Тест " + i)
+                .category(category)
+                .transactionType(type)
+                .typeOperation(type)
+                .sum(Money.parse(sum))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+-- Схема, которую создавал hibernate ddl-auto=update по сущностям до перехода на Flyway:
+-- Transaction, RegTransaction, Bank, Subject и Category с id через IDENTITY (без последовательностей),
+-- без дневных агрегатов, суммы в double precision. Плюс немного данных для проверки переноса.
+
+create sequence role_user_seq start with 1 increment by 50;
+create sequence user_table_seq start with 1 increment by 50;
+
+create table bank (id bigint generated by default as identity, subject_id bigint, bill varchar(255), name_bank varchar(255), rbill varchar(255), primary key (id));
+create table category (id bigint generated by default as identity, applicable_type varchar(255) check (applicable_type in ('DEBIT','CREDIT')), name varchar(255) not null, primary key (id));
+create table m2m_role_table (roles_id bigint not null, user_id bigint not null, primary key (roles_id, user_id));
+create table reg_transaction (date date, sum float(53) not null, id bigint generated by default as identity, transaction_type varchar(255) not null check (transaction_type in ('DEBIT','CREDIT')), primary key (id));
+create table role_user (id bigint not null, name_role varchar(255), primary key (id));
+create table subject (id bigint generated by default as identity, address varchar(255), inn varchar(255), name varchar(255), person_type varchar(255) check (person_type in ('PERSON_TYPE','LEGAL_TYPE')), recipient_phone varchar(255), primary key (id));
+create table transaction (category_id bigint, date_time timestamp(6), id bigint generated by default as identity, recipient_bank_id bigint, reg_transaction_id bigint unique, sender_bank_id bigint, subject_getter_id bigint not null, subject_id bigint not null, user_id bigint not null, comment varchar(255), status varchar(255) check (status in ('NEW','ACCEPTED','PROCESSING','CANCELED','PAYMENT_COMPLETED','PAYMENT_DELETED','RETURN')), primary key (id));
+create table user_table (account_non_expired boolean not null, account_non_locked boolean not null, credentials_non_expired boolean not null, enabled boolean not null, id bigint not null, password varchar(255), username varchar(255), primary key (id));
+
+alter table if exists bank add constraint uk_bank_bill_legacy unique (bill);
+alter table if exists bank add constraint uk_bank_rbill_legacy unique (rbill);
+alter table if exists category add constraint uk_category_name_legacy unique (name);
+alter table if exists role_user add constraint uk_role_user_name_legacy unique (name_role);
+alter table if exists user_table add constraint uk_user_table_username_legacy unique (username);
+
+alter table if exists bank add constraint fk_bank_subject foreign key (subject_id) references subject;
+alter table if exists m2m_role_table add constraint fk_m2m_role foreign key (roles_id) references role_user;
+alter table if exists m2m_role_table add constraint fk_m2m_user foreign key (user_id) references user_table;
+alter table if exists transaction add constraint fk_transaction_category foreign key (category_id) references category;
+alter table if exists transaction add constraint fk_transaction_recipient_bank foreign key (recipient_bank_id) references bank;
+alter table if exists transaction add constraint fk_transaction_reg foreign key (reg_transaction_id) references reg_transaction;
+alter table if exists transaction add constraint fk_transaction_sender_bank foreign key (sender_bank_id) references bank;
+alter table if exists transaction add constraint fk_transaction_subject_getter foreign key (subject_getter_id) references subject;
+alter table if exists transaction add constraint fk_transaction_subject foreign key (subject_id) references subject;
+alter table if exists transaction add constraint fk_transaction_user foreign key (user_id) references user_table;
+
+insert into user_table (id, username, password, enabled, account_non_expired, credentials_non_expired, account_non_locked)
+values (1, 'legacy', '', true, true, true, true);
+insert into subject (inn, name, person_type) values ('1000000001', 'Отправитель', 'LEGAL_TYPE'),
+                                                    ('200000000001', 'Получатель', 'PERSON_TYPE');
+insert into bank (name_bank, bill, rbill, subject_id) values ('Банк', '40800000000000000001', '30100000000000000001', 1);
+insert into category (name, applicable_type) values ('Legacy', 'DEBIT');
+insert into reg_transaction (transaction_type, sum, date) values ('DEBIT', 12.34, '2024-03-01'),
+                                                                 ('DEBIT', 0.1, '2024-03-01'),
+                                                                 ('DEBIT', 100, '2024-03-01');
+insert into transaction (status, date_time, comment, category_id, reg_transaction_id, sender_bank_id,
+                         subject_id, subject_getter_id, user_id)
+values ('NEW', '2024-03-01 10:00', 'Первая', 1, 1, 1, 1, 2, 1),
+       ('ACCEPTED', '2024-03-01 11:00', 'Вторая', 1, 2, 1, 1, 2, 1),
+       ('PAYMENT_DELETED', '2024-03-01 12:00', 'Удалённая', 1, 3, 1, 1, 2, 1);